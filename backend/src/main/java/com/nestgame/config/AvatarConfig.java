@@ -0,0 +1,30 @@
+package com.nestgame.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves avatars stored by the local filesystem backend under /avatars/**
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.avatars.storage", havingValue = "local")
+public class AvatarConfig implements WebMvcConfigurer {
+
+    @Value("${app.avatars.local-dir}")
+    private String localDir;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        String location = Path.of(localDir).toAbsolutePath().toUri().toString();
+        registry.addResourceHandler("/avatars/**")
+                .addResourceLocations(location.endsWith("/") ? location : location + "/")
+                .setCacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePublic());
+    }
+}
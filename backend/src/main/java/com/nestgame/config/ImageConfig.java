@@ -0,0 +1,56 @@
+package com.nestgame.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools for image work.
+ *
+ * The pools and their queues are bounded so a burst of uncached images cannot
+ * exhaust memory; submissions beyond the queue capacity are rejected.
+ */
+@Configuration
+public class ImageConfig {
+
+    @Value("${app.images.workers:2}")
+    private int workers;
+
+    @Value("${app.images.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${app.avatars.upload-workers:2}")
+    private int avatarUploadWorkers;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService imageExecutor() {
+        return boundedPool("image-worker-", workers, queueCapacity);
+    }
+
+    /**
+     * Pushes processed avatars to the storage provider. Kept apart from the
+     * image pool so slow uploads never hold up CPU-bound image work.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService avatarUploadExecutor() {
+        return boundedPool("avatar-upload-", avatarUploadWorkers, queueCapacity);
+    }
+
+    private ExecutorService boundedPool(String namePrefix, int threads, int capacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
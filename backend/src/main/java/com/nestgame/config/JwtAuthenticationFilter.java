@@ -32,9 +32,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Skip JWT validation for public endpoints
         String path = request.getServletPath();
         System.out.println(">>> Processing: " + request.getMethod() + " " + path);
-        if (path.startsWith("/auth/") ||
-                path.startsWith("/games/") ||
-                path.startsWith("/categories/")) {
+        if (path.startsWith("/auth/") || isPublicRead(request, path)) {
             System.out.println(">>> Public endpoint, skipping JWT");
             filterChain.doFilter(request, response);
             return;
@@ -67,4 +65,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Catalog reads need no user. Writes under the same paths (ratings,
+     * comments, patch uploads) and "/me" lookups still need the token.
+     */
+    private boolean isPublicRead(HttpServletRequest request, String path) {
+        boolean publicPath = path.startsWith("/games/") ||
+                path.startsWith("/images/") ||
+                path.startsWith("/avatars/") ||
+                path.startsWith("/categories/");
+        boolean safeMethod = "GET".equalsIgnoreCase(request.getMethod())
+                || "HEAD".equalsIgnoreCase(request.getMethod());
+        return publicPath && safeMethod && !path.endsWith("/me");
+    }
 }
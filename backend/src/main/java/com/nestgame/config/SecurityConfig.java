@@ -47,7 +47,9 @@ public class SecurityConfig {
                 configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
                 configuration.setAllowedHeaders(Arrays.asList("*"));
                 configuration.setAllowCredentials(true);
-                configuration.setExposedHeaders(Arrays.asList("Authorization"));
+                configuration.setExposedHeaders(Arrays.asList("Authorization",
+                                "X-Replay-Ports", "X-Replay-Frame-Count", "X-Replay-Start-Frame",
+                                "X-Replay-Keyframe", "X-Replay-State", "X-Keyframe-Frame"));
 
                 UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
                 source.registerCorsConfiguration("/**", configuration);
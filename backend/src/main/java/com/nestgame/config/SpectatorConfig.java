@@ -0,0 +1,41 @@
+package com.nestgame.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pool for spectator fan-out.
+ *
+ * Kept out of {@link WebSocketConfig}, which depends on the handlers that in
+ * turn need this pool.
+ */
+@Configuration
+public class SpectatorConfig {
+
+    @Value("${app.spectators.workers:4}")
+    private int spectatorWorkers;
+
+    /**
+     * Drains spectator queues. Each viewer has at most one pending task, so
+     * the queue is bounded by the number of viewers.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService spectatorExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "spectator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(spectatorWorkers, spectatorWorkers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+    }
+}
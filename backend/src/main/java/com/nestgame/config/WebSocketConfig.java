@@ -0,0 +1,50 @@
+package com.nestgame.config;
+
+import com.nestgame.websocket.JwtHandshakeInterceptor;
+import com.nestgame.websocket.NetplayHandler;
+import com.nestgame.websocket.SpectatorHandler;
+import com.nestgame.websocket.SpectatorHandshakeInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final NetplayHandler netplayHandler;
+    private final SpectatorHandler spectatorHandler;
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final SpectatorHandshakeInterceptor spectatorHandshakeInterceptor;
+
+    @Value("${app.netplay.idle-timeout:30000}")
+    private long idleTimeout;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(netplayHandler, "/netplay")
+                .addInterceptors(jwtHandshakeInterceptor)
+                .setAllowedOrigins("http://localhost:3000");
+        registry.addHandler(spectatorHandler, "/spectate")
+                .addInterceptors(spectatorHandshakeInterceptor)
+                .setAllowedOrigins("http://localhost:3000");
+    }
+
+    /**
+     * Netplay frames are tiny; small buffers keep per-connection memory low
+     */
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxBinaryMessageBufferSize(1024);
+        container.setMaxTextMessageBufferSize(1024);
+        container.setMaxSessionIdleTimeout(idleTimeout);
+        return container;
+    }
+}
@@ -0,0 +1,88 @@
+package com.nestgame.controller;
+
+import com.nestgame.dto.CatalogChangesDTO;
+import com.nestgame.service.CatalogChangeService;
+import com.nestgame.service.CatalogSnapshotService;
+import com.nestgame.service.CatalogSnapshotService.Snapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller for whole-catalog downloads and the catalog change feed
+ */
+@RestController
+@RequestMapping("/catalog")
+@RequiredArgsConstructor
+public class CatalogController {
+
+    private static final CacheControl SNAPSHOT_CACHE = CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic();
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogChangeService catalogChangeService;
+
+    /**
+     * Every game as a JSON array, Brotli compressed or gzipped when the
+     * client accepts it, Brotli preferred. The body is pre-serialized, so a
+     * request costs a byte copy or a 304.
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<byte[]> getSnapshot(WebRequest request) {
+        Snapshot snapshot = catalogSnapshotService.getSnapshot();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean brotli = snapshot.brotli() != null && accepts(acceptEncoding, "br");
+        boolean gzip = !brotli && accepts(acceptEncoding, "gzip");
+        // Each encoding is its own representation and needs its own strong ETag
+        String etag = "\"s" + Long.toHexString(snapshot.version()) + (brotli ? "-br" : gzip ? "-gz" : "") + "\"";
+
+        if (request.checkNotModified(etag, snapshot.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(SNAPSHOT_CACHE)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(SNAPSHOT_CACHE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (brotli) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "br").body(snapshot.brotli());
+        }
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    /**
+     * Games changed after {@code since}. Start from the seq returned with
+     * {@code since} omitted, load the snapshot, then poll with the seq of
+     * each response.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<CatalogChangesDTO> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(catalogChangeService.getChanges(since, fields));
+    }
+
+    private static boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(encoding)) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -1,37 +1,138 @@
 package com.nestgame.controller;
 
 import com.nestgame.dto.GameDTO;
+import com.nestgame.dto.GameFacetsDTO;
+import com.nestgame.dto.GamePageDTO;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.service.GameCatalog;
+import com.nestgame.service.GameIndex;
+import com.nestgame.service.GameIndex.SortKey;
 import com.nestgame.service.GameService;
+import com.nestgame.service.GameService.CountMode;
+import com.nestgame.util.ConditionalGet;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/games")
 @RequiredArgsConstructor
 public class GameController {
 
+    /** Lists change whenever any game does; revalidation is a cheap 304. */
+    private static final CacheControl LIST_CACHE = CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic();
+    private static final CacheControl GAME_CACHE = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic();
+
     private final GameService gameService;
+    private final GameCatalog gameCatalog;
 
+    /**
+     * A page of games; {@code fields=name,thumbnailUrl} returns only those
+     * fields, and the database fallback reads only their columns.
+     * {@code count} picks how the total is computed: {@code exact},
+     * {@code estimate}, or {@code none} for just {@code hasNext}.
+     * {@code sortBy} is one of name, year, rating, playCount or createdAt.
+     */
     @GetMapping
-    public ResponseEntity<Page<GameDTO>> getGames(
+    public ResponseEntity<GamePageDTO> getGames(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String region,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-        PageRequest pageRequest = PageRequest.of(page, size, sort);
-        return ResponseEntity.ok(gameService.getGames(search, category, region, pageRequest));
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "exact") String count,
+            WebRequest request) {
+        CountMode countMode = CountMode.parse(count);
+        SortKey sortKey = SortKey.parse(sortBy);
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+        // Same bounds as PageRequest.of, which the database fallback builds
+        if (page < 0 || size < 1) {
+            throw new BadRequestException("Trang hoặc kích thước trang không hợp lệ");
+        }
+        return ConditionalGet.respond(request, catalogETag(), gameCatalog.lastModified(), LIST_CACHE,
+                () -> gameService.getGames(search, category, region, page, size, sortKey, descending, fields,
+                        countMode));
+    }
+
+    /**
+     * Many games by id, e.g. {@code /games/batch?ids=3,1,2&fields=name,thumbnailUrl}
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<Map<String, Object>> getGamesByIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        return ConditionalGet.respond(request, catalogETag(), gameCatalog.lastModified(), LIST_CACHE,
+                () -> gameService.getGamesByIds(ids, fields));
+    }
+
+    /**
+     * Games filtered on several values per dimension, e.g.
+     * {@code /games/facets?category=rpg,puzzle&yearFrom=1985&yearTo=1990},
+     * with the number of games behind every category, region, year and
+     * featured value
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<GameFacetsDTO> getFacets(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> region,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) Boolean featured,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        SortKey sortKey = SortKey.parse(sortBy);
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+        GameIndex.Filter filter = new GameIndex.Filter(search, withoutAll(category), withoutAll(region),
+                yearFrom, yearTo, featured);
+        return ConditionalGet.respond(request, catalogETag(), gameCatalog.lastModified(), LIST_CACHE,
+                () -> gameService.getFacets(filter, page, size, sortKey, descending, fields));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<GameDTO> getGameById(@PathVariable Long id) {
-        return ResponseEntity.ok(gameService.getGameById(id));
+    public ResponseEntity<Object> getGameById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        GameDTO game = gameService.getGameById(id);
+        Instant updatedAt = game.updatedAt() != null ? game.updatedAt().atZone(ZoneId.systemDefault()).toInstant() : null;
+        // Every entity write moves updatedAt; play counts are added in SQL without touching it
+        String etag = "\"g" + id + "-"
+                + (updatedAt != null ? Long.toHexString(updatedAt.getEpochSecond()) + "." + updatedAt.getNano() : "0")
+                + "-" + game.playCount() + "\"";
+        long lastModified = updatedAt != null ? updatedAt.toEpochMilli() : -1;
+        return ConditionalGet.respond(request, etag, lastModified, GAME_CACHE,
+                () -> gameService.select(game, fields));
+    }
+
+    /**
+     * "all" selects nothing, as on {@code GET /games}
+     */
+    private static List<String> withoutAll(List<String> values) {
+        return values == null ? null : values.stream().filter(v -> !"all".equalsIgnoreCase(v)).toList();
+    }
+
+    /**
+     * Every list of games is derived from the catalog, so its version is a
+     * strong validator for all of them
+     */
+    private String catalogETag() {
+        return "\"c" + Long.toHexString(gameCatalog.version()) + "\"";
     }
 }
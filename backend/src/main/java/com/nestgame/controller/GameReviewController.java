@@ -9,13 +9,17 @@ import com.nestgame.entity.User;
 import com.nestgame.repository.GameCommentRepository;
 import com.nestgame.repository.GameRatingRepository;
 import com.nestgame.repository.GameRepository;
+import com.nestgame.service.GameRatingService;
+import com.nestgame.service.UserResourceVersions;
+import com.nestgame.util.ConditionalGet;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.security.Principal;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -31,6 +35,8 @@ public class GameReviewController {
     private final GameRatingRepository ratingRepository;
     private final GameCommentRepository commentRepository;
     private final GameRepository gameRepository;
+    private final GameRatingService gameRatingService;
+    private final UserResourceVersions userResourceVersions;
 
     // =================== RATINGS ===================
 
@@ -51,15 +57,17 @@ public class GameReviewController {
      * Get user's rating for a game
      */
     @GetMapping("/ratings/me")
-    public ResponseEntity<?> getMyRating(@PathVariable Long gameId, Principal principal) {
+    public ResponseEntity<?> getMyRating(@PathVariable Long gameId, Principal principal, WebRequest request) {
         if (principal == null) {
             return ResponseEntity.ok(Map.of("rating", 0));
         }
 
         User user = extractUser(principal);
-        return ratingRepository.findByUserIdAndGameId(user.getId(), gameId)
-                .map(r -> ResponseEntity.ok(Map.of("rating", r.getRating())))
-                .orElse(ResponseEntity.ok(Map.of("rating", 0)));
+        String etag = userResourceVersions.etag(user.getId(), UserResourceVersions.Resource.RATINGS);
+        return ConditionalGet.respond(request, etag, -1, CacheControl.noCache().cachePrivate(),
+                () -> Map.of("rating", ratingRepository.findByUserIdAndGameId(user.getId(), gameId)
+                        .map(GameRating::getRating)
+                        .orElse(0)));
     }
 
     /**
@@ -80,29 +88,12 @@ public class GameReviewController {
                     "message", "Rating must be between 1 and 5"));
         }
 
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new RuntimeException("Game not found"));
-
-        // Update or create rating
-        GameRating gameRating = ratingRepository.findByUserIdAndGameId(user.getId(), gameId)
-                .orElse(GameRating.builder()
-                        .user(user)
-                        .game(game)
-                        .build());
-
-        gameRating.setRating(rating);
-        gameRating.setUpdatedAt(LocalDateTime.now());
-        // Get new average
-        Double avgRating = ratingRepository.getAverageRatingByGameId(gameId);
-
-        // Update rating in Game entity for Leaderboard sorting
-        game.setRating(avgRating != null ? Math.round(avgRating * 10) / 10.0 : rating.doubleValue());
-        gameRepository.save(game);
+        double averageRating = gameRatingService.rate(user, gameId, rating);
 
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "rating", rating,
-                "averageRating", avgRating != null ? Math.round(avgRating * 10) / 10.0 : rating));
+                "averageRating", averageRating));
     }
 
     // =================== COMMENTS ===================
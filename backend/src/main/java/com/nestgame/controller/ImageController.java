@@ -0,0 +1,114 @@
+package com.nestgame.controller;
+
+import com.nestgame.dto.AtlasDTO;
+import com.nestgame.dto.GameDTO;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.service.AtlasService;
+import com.nestgame.service.GameCatalog;
+import com.nestgame.service.GameIndex.SortKey;
+import com.nestgame.service.ImageService;
+import com.nestgame.service.ImageService.ImageKind;
+import com.nestgame.service.ImageService.ThumbnailSize;
+import com.nestgame.util.ImageCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller serving locally generated game thumbnails and sprite atlases
+ */
+@RestController
+@RequestMapping("/images")
+@RequiredArgsConstructor
+public class ImageController {
+
+    private static final int MAX_ATLAS_TILES = 100;
+
+    private final ImageService imageService;
+    private final AtlasService atlasService;
+    private final GameCatalog gameCatalog;
+
+    /**
+     * Get a thumbnail of a game image. Responses carry an ETag and
+     * Last-Modified so browsers revalidate with a body-less 304.
+     */
+    @GetMapping("/games/{gameId}/{kind}/{size}")
+    public ResponseEntity<Resource> getThumbnail(
+            @PathVariable Long gameId,
+            @PathVariable String kind,
+            @PathVariable String size) {
+
+        GameDTO game = gameCatalog.get(gameId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy game với ID: " + gameId));
+        Path file = imageService.getThumbnail(game, ImageKind.parse(kind), ThumbnailSize.parse(size));
+        return serveImage(file);
+    }
+
+    /**
+     * Get a sprite atlas for a page of games. Takes the same query parameters
+     * as {@code GET /games}; the atlas image itself is served by
+     * {@link #getAtlasImage(String)}.
+     */
+    @GetMapping("/atlas")
+    public ResponseEntity<AtlasDTO> getAtlas(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String region,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+        if (size < 1 || size > MAX_ATLAS_TILES) {
+            throw new BadRequestException("size must be between 1 and " + MAX_ATLAS_TILES);
+        }
+        if (page < 0) {
+            throw new BadRequestException("Trang hoặc kích thước trang không hợp lệ");
+        }
+
+        AtlasDTO atlas = atlasService.getAtlas(search, category, region, page, size, SortKey.parse(sortBy),
+                sortDir.equalsIgnoreCase("desc"));
+        return ResponseEntity.ok()
+                .cacheControl(atlas.complete()
+                        ? CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic()
+                        : CacheControl.noStore())
+                .body(atlas);
+    }
+
+    @GetMapping("/atlas/{key}")
+    public ResponseEntity<Resource> getAtlasImage(@PathVariable String key) {
+        return serveImage(atlasService.getAtlasImage(key));
+    }
+
+    private static ResponseEntity<Resource> serveImage(Path file) {
+        try {
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            String etag = "\"" + file.getFileName().toString().substring(0, 16) + "-"
+                    + Long.toHexString(lastModified) + "\"";
+
+            // Spring answers If-None-Match / If-Modified-Since with 304 before writing the body
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic())
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .contentType(MediaType.parseMediaType(ImageCodec.OUTPUT_CONTENT_TYPE))
+                    .body(new FileSystemResource(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.nestgame.controller;
 
-import com.nestgame.dto.GameDTO;
 import com.nestgame.entity.Game;
 import com.nestgame.repository.GameRepository;
+import com.nestgame.service.GameCatalog;
+import com.nestgame.service.GameMapper;
+import com.nestgame.service.GameService;
+import com.nestgame.util.ConditionalGet;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @RestController
@@ -18,37 +25,22 @@ import java.util.stream.Collectors;
 public class LeaderboardController {
 
     private final GameRepository gameRepository;
+    private final GameMapper gameMapper;
+    private final GameCatalog gameCatalog;
+    private final GameService gameService;
 
     @GetMapping("/top-rated")
-    public ResponseEntity<List<GameDTO>> getTopRatedGames() {
-        List<Game> topGames = gameRepository.findTop10ByOrderByRatingDesc();
-
-        List<GameDTO> dtos = topGames.stream()
-                .map(this::toGameDTO)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(dtos);
-    }
-
-    private GameDTO toGameDTO(Game game) {
-        return GameDTO.builder()
-                .id(game.getId())
-                .name(game.getName())
-                .fileName(game.getFileName())
-                .path(game.getPath())
-                .categoryId(game.getCategory().getId())
-                .categoryName(game.getCategory().getName())
-                .description(game.getDescription())
-                .rating(game.getRating())
-                .year(game.getYear())
-                .region(game.getRegion())
-                .isFeatured(game.getIsFeatured())
-                .imageUrl(game.getImageUrl())
-                .imageSnap(game.getImageSnap())
-                .imageTitle(game.getImageTitle())
-                .playCount(game.getPlayCount())
-                .createdAt(game.getCreatedAt())
-                .updatedAt(game.getUpdatedAt())
-                .build();
+    public ResponseEntity<List<?>> getTopRatedGames(
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        String etag = "\"c" + Long.toHexString(gameCatalog.version()) + "\"";
+        return ConditionalGet.respond(request, etag, gameCatalog.lastModified(),
+                CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic(), () -> {
+                    List<Game> topGames = gameRepository.findTop10ByOrderByRatingDesc();
+
+                    return gameService.select(topGames.stream()
+                            .map(gameMapper::toDTO)
+                            .collect(Collectors.toList()), fields);
+                });
     }
 }
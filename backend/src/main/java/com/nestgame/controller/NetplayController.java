@@ -0,0 +1,86 @@
+package com.nestgame.controller;
+
+import com.nestgame.dto.NetplayRoomDTO;
+import com.nestgame.entity.User;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.service.NetplayService;
+import com.nestgame.service.SaveStateService;
+import com.nestgame.service.SpectatorService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Netplay room listing. Play happens over the {@code /netplay} WebSocket and
+ * spectating over {@code /spectate}.
+ */
+@RestController
+@RequiredArgsConstructor
+public class NetplayController {
+
+    private final NetplayService netplayService;
+    private final SpectatorService spectatorService;
+    private final SaveStateService saveStateService;
+
+    /**
+     * Open and running public rooms of a game
+     */
+    @GetMapping("/games/{gameId}/netplay/rooms")
+    public ResponseEntity<List<NetplayRoomDTO>> getGameRooms(@PathVariable Long gameId) {
+        return ResponseEntity.ok(netplayService.getPublicRooms(gameId));
+    }
+
+    /**
+     * Latency, jitter and relay statistics of every room
+     */
+    @GetMapping("/netplay/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<NetplayRoomDTO>> getStats() {
+        return ResponseEntity.ok(netplayService.getRooms(null));
+    }
+
+    /**
+     * Save state of a room's latest keyframe, used by spectators to catch up.
+     * A private room's keyframe needs the room {@code code} or a seat in it.
+     */
+    @GetMapping("/netplay/rooms/{roomId}/keyframe")
+    public ResponseEntity<StreamingResponseBody> getKeyframe(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) String code,
+            Principal principal) {
+        if (!netplayService.canWatch(roomId, optionalUser(principal), code)) {
+            throw new ResourceNotFoundException("Không tìm thấy phòng với ID: " + roomId);
+        }
+        SpectatorService.Keyframe keyframe = spectatorService.getKeyframe(roomId);
+        if (keyframe == null) {
+            throw new ResourceNotFoundException("Phòng chưa có keyframe");
+        }
+        long size = saveStateService.getStateSize(keyframe.owner(), keyframe.gameId(), keyframe.slot());
+
+        StreamingResponseBody body = out -> saveStateService.writeState(
+                keyframe.owner(), keyframe.gameId(), keyframe.slot(), out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(size)
+                .header("X-Keyframe-Frame", String.valueOf(keyframe.frame()))
+                .body(body);
+    }
+
+    private User optionalUser(Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken
+                && authToken.getPrincipal() instanceof User user) {
+            return user;
+        }
+        return null;
+    }
+}
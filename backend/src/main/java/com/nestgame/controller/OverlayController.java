@@ -0,0 +1,48 @@
+package com.nestgame.controller;
+
+import com.nestgame.dto.GameOverlayDTO;
+import com.nestgame.dto.request.OverlayRequest;
+import com.nestgame.entity.User;
+import com.nestgame.service.OverlayService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Controller for the per-user badges of game cards
+ */
+@RestController
+@RequestMapping("/users/me/overlay")
+@RequiredArgsConstructor
+public class OverlayController {
+
+    private final OverlayService overlayService;
+
+    /**
+     * Favorite flag, own rating and last played time for each game id
+     */
+    @PostMapping
+    public ResponseEntity<List<GameOverlayDTO>> getOverlay(
+            @Valid @RequestBody OverlayRequest request,
+            Principal principal) {
+        return ResponseEntity.ok(overlayService.getOverlay(extractUser(principal), request.getGameIds()));
+    }
+
+    private User extractUser(Principal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Vui lòng đăng nhập");
+        }
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken) {
+            Object userObj = authToken.getPrincipal();
+            if (userObj instanceof User user) {
+                return user;
+            }
+        }
+        throw new RuntimeException("Invalid authentication");
+    }
+}
@@ -1,11 +1,18 @@
 package com.nestgame.controller;
 
-import com.nestgame.dto.GameDTO;
+import com.nestgame.dto.request.BatchPlayHistoryRequest;
 import com.nestgame.entity.User;
+import com.nestgame.service.GameCatalog;
+import com.nestgame.service.GameService;
 import com.nestgame.service.PlayHistoryService;
+import com.nestgame.service.UserResourceVersions;
+import com.nestgame.util.ConditionalGet;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.security.Principal;
 import java.util.List;
@@ -16,7 +23,13 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class PlayHistoryController {
 
+    /** Private to the user; always revalidated, which is a 304 while nothing changed. */
+    private static final CacheControl PRIVATE_CACHE = CacheControl.noCache().cachePrivate();
+
     private final PlayHistoryService playHistoryService;
+    private final UserResourceVersions userResourceVersions;
+    private final GameCatalog gameCatalog;
+    private final GameService gameService;
 
     @PostMapping
     public ResponseEntity<Map<String, String>> recordPlay(
@@ -34,11 +47,25 @@ public class PlayHistoryController {
         return ResponseEntity.ok(Map.of("message", "Play history recorded successfully"));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> recordPlays(
+            @Valid @RequestBody BatchPlayHistoryRequest request,
+            Principal connectedUser) {
+        var user = (User) ((org.springframework.security.authentication.UsernamePasswordAuthenticationToken) connectedUser)
+                .getPrincipal();
+        return ResponseEntity.ok(playHistoryService.recordPlays(user, request.getPlays()));
+    }
+
     @GetMapping
-    public ResponseEntity<List<GameDTO>> getUserHistory(Principal connectedUser) {
+    public ResponseEntity<List<?>> getUserHistory(
+            @RequestParam(required = false) String fields,
+            Principal connectedUser,
+            WebRequest request) {
         var user = (User) ((org.springframework.security.authentication.UsernamePasswordAuthenticationToken) connectedUser)
                 .getPrincipal();
-        List<GameDTO> history = playHistoryService.getUserHistory(user);
-        return ResponseEntity.ok(history);
+        String etag = userResourceVersions.etag(user.getId(), UserResourceVersions.Resource.HISTORY,
+                gameCatalog.version());
+        return ConditionalGet.respond(request, etag, -1, PRIVATE_CACHE,
+                () -> gameService.select(playHistoryService.getUserHistory(user), fields));
     }
 }
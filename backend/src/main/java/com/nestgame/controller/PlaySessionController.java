@@ -0,0 +1,61 @@
+package com.nestgame.controller;
+
+import com.nestgame.entity.User;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.service.PlaySessionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Controller for play-session heartbeats sent by the emulator
+ */
+@RestController
+@RequestMapping("/users/me/sessions")
+@RequiredArgsConstructor
+public class PlaySessionController {
+
+    private final PlaySessionService playSessionService;
+
+    /**
+     * Keep the session of a game alive
+     */
+    @PostMapping("/heartbeat")
+    public ResponseEntity<Map<String, Object>> heartbeat(@RequestBody Map<String, Long> request, Principal principal) {
+        return ResponseEntity.ok(playSessionService.heartbeat(extractUser(principal), requireGameId(request)));
+    }
+
+    /**
+     * End the session of a game
+     */
+    @PostMapping("/end")
+    public ResponseEntity<Map<String, String>> end(@RequestBody Map<String, Long> request, Principal principal) {
+        playSessionService.end(extractUser(principal), requireGameId(request));
+        return ResponseEntity.ok(Map.of("message", "Session ended"));
+    }
+
+    private Long requireGameId(Map<String, Long> request) {
+        Long gameId = request.get("gameId");
+        if (gameId == null) {
+            throw new BadRequestException("gameId is required");
+        }
+        return gameId;
+    }
+
+    private User extractUser(Principal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Vui lòng đăng nhập");
+        }
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken) {
+            Object userObj = authToken.getPrincipal();
+            if (userObj instanceof User user) {
+                return user;
+            }
+        }
+        throw new RuntimeException("Invalid authentication");
+    }
+}
@@ -2,16 +2,22 @@ package com.nestgame.controller;
 
 import com.nestgame.dto.UserDTO;
 import com.nestgame.entity.User;
-import com.nestgame.service.CloudinaryService;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.service.AvatarService;
+import com.nestgame.service.UserResourceVersions;
 import com.nestgame.service.UserService;
+import com.nestgame.util.ConditionalGet;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.security.Principal;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -23,10 +29,12 @@ import java.util.Map;
 public class ProfileController {
 
     private final UserService userService;
-    private final CloudinaryService cloudinaryService;
+    private final AvatarService avatarService;
+    private final UserResourceVersions userResourceVersions;
 
     /**
-     * Upload user avatar
+     * Upload user avatar. Processing happens in the background; poll
+     * {@code GET /users/me/avatar/status} for the resulting URL.
      */
     @PostMapping("/avatar")
     public ResponseEntity<?> uploadAvatar(
@@ -36,14 +44,13 @@ public class ProfileController {
         User user = extractUser(principal);
 
         try {
-            String avatarUrl = cloudinaryService.uploadAvatar(file, user.getId());
-            userService.updateAvatarUrl(user.getId(), avatarUrl);
+            AvatarService.UploadStatus status = avatarService.submit(file, user.getId());
 
-            return ResponseEntity.ok(Map.of(
+            return ResponseEntity.accepted().body(Map.of(
                     "success", true,
-                    "avatarUrl", avatarUrl,
-                    "message", "Avatar uploaded successfully"));
-        } catch (IllegalArgumentException e) {
+                    "status", status.status(),
+                    "message", "Avatar upload accepted"));
+        } catch (BadRequestException e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
                     "message", e.getMessage()));
@@ -54,6 +61,26 @@ public class ProfileController {
         }
     }
 
+    /**
+     * Get the status of the latest avatar upload
+     */
+    @GetMapping("/avatar/status")
+    public ResponseEntity<?> getAvatarStatus(Principal principal) {
+        User user = extractUser(principal);
+        AvatarService.UploadStatus status = avatarService.getStatus(user.getId());
+
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", status.status() != AvatarService.Status.FAILED);
+        body.put("status", status.status());
+        body.put("avatarUrl", status.avatarUrl());
+        body.put("message", status.message());
+        return ResponseEntity.ok(body);
+    }
+
     /**
      * Delete user avatar
      */
@@ -61,8 +88,7 @@ public class ProfileController {
     public ResponseEntity<?> deleteAvatar(Principal principal) {
         User user = extractUser(principal);
 
-        cloudinaryService.deleteAvatar(user.getId());
-        userService.updateAvatarUrl(user.getId(), null);
+        avatarService.delete(user.getId());
 
         return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -98,9 +124,11 @@ public class ProfileController {
      * Get current user profile
      */
     @GetMapping
-    public ResponseEntity<UserDTO> getProfile(Principal principal) {
+    public ResponseEntity<UserDTO> getProfile(Principal principal, WebRequest request) {
         User user = extractUser(principal);
-        return ResponseEntity.ok(userService.getUserDTO(user));
+        String etag = userResourceVersions.etag(user.getId(), UserResourceVersions.Resource.PROFILE);
+        return ConditionalGet.respond(request, etag, -1, CacheControl.noCache().cachePrivate(),
+                () -> userService.getUserDTO(user));
     }
 
     private User extractUser(Principal principal) {
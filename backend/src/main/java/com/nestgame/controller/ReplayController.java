@@ -0,0 +1,161 @@
+package com.nestgame.controller;
+
+import com.nestgame.dto.ReplayDTO;
+import com.nestgame.entity.ReplayKeyframe;
+import com.nestgame.entity.User;
+import com.nestgame.service.ReplayService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller for input replays. Uploads are raw input bytes
+ * ({@code ports} bytes per frame); downloads are the encoded replay file or,
+ * with {@code format=raw}, decoded frames.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ReplayController {
+
+    private final ReplayService replayService;
+
+    /**
+     * List replays of a game, newest first
+     */
+    @GetMapping("/games/{gameId}/replays")
+    public ResponseEntity<Page<ReplayDTO>> getGameReplays(
+            @PathVariable Long gameId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(replayService.getGameReplays(gameId, page, size));
+    }
+
+    /**
+     * Upload a recording
+     */
+    @PostMapping(value = "/games/{gameId}/replays", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ReplayDTO> uploadReplay(
+            @PathVariable Long gameId,
+            @RequestParam(required = false) String title,
+            @RequestParam(defaultValue = "1") int ports,
+            HttpServletRequest request,
+            Principal principal) throws IOException {
+        User user = extractUser(principal);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(replayService.upload(user, gameId, title, ports, request.getInputStream()));
+    }
+
+    /**
+     * Replays recorded by the current user
+     */
+    @GetMapping("/users/me/replays")
+    public ResponseEntity<Page<ReplayDTO>> getMyReplays(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Principal principal) {
+        return ResponseEntity.ok(replayService.getUserReplays(extractUser(principal), page, size));
+    }
+
+    /**
+     * Replay metadata including keyframes
+     */
+    @GetMapping("/replays/{replayId}")
+    public ResponseEntity<ReplayDTO> getReplay(@PathVariable Long replayId) {
+        return ResponseEntity.ok(replayService.getReplay(replayId));
+    }
+
+    /**
+     * Download replay input. With {@code fromFrame} the response starts at
+     * the nearest restart point before the closest keyframe; the headers tell
+     * the client where to download the keyframe's state and from which frame
+     * input begins.
+     */
+    @GetMapping("/replays/{replayId}/data")
+    public ResponseEntity<StreamingResponseBody> getReplayData(
+            @PathVariable Long replayId,
+            @RequestParam(required = false) Long fromFrame,
+            @RequestParam(defaultValue = "encoded") String format) {
+        ReplayService.ReplayStream stream = replayService.openStream(replayId, fromFrame);
+        boolean raw = "raw".equalsIgnoreCase(format);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header("X-Replay-Ports", String.valueOf(stream.replay().getPorts()))
+                .header("X-Replay-Frame-Count", String.valueOf(stream.replay().getFrameCount()))
+                .header("X-Replay-Start-Frame", String.valueOf(raw ? stream.keyframe() : stream.startFrame()))
+                .header("X-Replay-Keyframe", String.valueOf(stream.keyframe()));
+        if (stream.stateUrl() != null) {
+            response.header("X-Replay-State", stream.stateUrl());
+        }
+
+        if (raw) {
+            long frames = stream.replay().getFrameCount() - stream.keyframe();
+            StreamingResponseBody body = out -> replayService.writeRaw(stream, out);
+            return response.contentLength(frames * stream.replay().getPorts()).body(body);
+        }
+        StreamingResponseBody body = out -> replayService.writeEncoded(stream, out);
+        return response.contentLength(stream.length()).body(body);
+    }
+
+    /**
+     * Emulator state captured at a keyframe, readable by anyone who can read the replay
+     */
+    @GetMapping("/replays/{replayId}/keyframes/{frame}/state")
+    public ResponseEntity<StreamingResponseBody> getKeyframeState(
+            @PathVariable Long replayId,
+            @PathVariable Long frame) {
+        ReplayKeyframe keyframe = replayService.getKeyframeState(replayId, frame);
+        StreamingResponseBody body = out -> replayService.writeKeyframeState(keyframe, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(keyframe.getStateSize())
+                // The URL names a frame, and the owner may replace the keyframes
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    /**
+     * Copy save states into frames of one of the current user's replays
+     */
+    @PutMapping("/replays/{replayId}/keyframes")
+    public ResponseEntity<ReplayDTO> setKeyframes(
+            @PathVariable Long replayId,
+            @RequestBody List<ReplayDTO.Keyframe> keyframes,
+            Principal principal) {
+        return ResponseEntity.ok(replayService.setKeyframes(extractUser(principal), replayId, keyframes));
+    }
+
+    /**
+     * Delete one of the current user's replays
+     */
+    @DeleteMapping("/replays/{replayId}")
+    public ResponseEntity<Map<String, String>> deleteReplay(@PathVariable Long replayId, Principal principal) {
+        replayService.deleteReplay(extractUser(principal), replayId);
+        return ResponseEntity.ok(Map.of("message", "Replay deleted successfully"));
+    }
+
+    private User extractUser(Principal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Vui lòng đăng nhập");
+        }
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken) {
+            Object userObj = authToken.getPrincipal();
+            if (userObj instanceof User user) {
+                return user;
+            }
+        }
+        throw new RuntimeException("Invalid authentication");
+    }
+}
@@ -0,0 +1,78 @@
+package com.nestgame.controller;
+
+import com.nestgame.dto.GamePatchDTO;
+import com.nestgame.service.PatchService;
+import com.nestgame.service.RomService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller for ROM downloads and ROM patches (fan translations)
+ */
+@RestController
+@RequestMapping("/games/{gameId}")
+@RequiredArgsConstructor
+public class RomController {
+
+    private final RomService romService;
+    private final PatchService patchService;
+
+    /**
+     * Download a game's ROM, optionally with a patch applied
+     */
+    @GetMapping("/rom")
+    public ResponseEntity<Resource> downloadRom(
+            @PathVariable Long gameId,
+            @RequestParam(required = false) Long patch) {
+
+        RomService.RomFile rom = patch == null
+                ? romService.getRom(gameId)
+                : patchService.getPatchedRom(gameId, patch);
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic())
+                .eTag("\"" + romService.sha256(rom.path()) + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header("Content-Disposition", ContentDisposition.attachment()
+                        .filename(rom.downloadName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(rom.path()));
+    }
+
+    /**
+     * List the patches available for a game
+     */
+    @GetMapping("/patches")
+    public ResponseEntity<List<GamePatchDTO>> getPatches(@PathVariable Long gameId) {
+        return ResponseEntity.ok(patchService.getPatches(gameId));
+    }
+
+    /**
+     * Upload an IPS or BPS patch (admin only). For IPS patches, which carry
+     * no checksum, {@code sourceCrc32} can be given to verify the source ROM.
+     */
+    @PostMapping("/patches")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<GamePatchDTO> addPatch(
+            @PathVariable Long gameId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam String name,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) Long sourceCrc32) throws IOException {
+        return ResponseEntity.ok(patchService.addPatch(gameId, file, name, language, sourceCrc32));
+    }
+}
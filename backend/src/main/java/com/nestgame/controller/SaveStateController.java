@@ -0,0 +1,101 @@
+package com.nestgame.controller;
+
+import com.nestgame.dto.SaveStateDTO;
+import com.nestgame.entity.User;
+import com.nestgame.service.SaveStateService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller for cloud save states. Uploads and downloads are raw
+ * {@code application/octet-stream} bodies streamed without buffering.
+ */
+@RestController
+@RequestMapping("/users/me")
+@RequiredArgsConstructor
+public class SaveStateController {
+
+    private final SaveStateService saveStateService;
+
+    /**
+     * List save states of a game
+     */
+    @GetMapping("/games/{gameId}/states")
+    public ResponseEntity<List<SaveStateDTO>> getStates(@PathVariable Long gameId, Principal principal) {
+        return ResponseEntity.ok(saveStateService.getStates(extractUser(principal), gameId));
+    }
+
+    /**
+     * Upload a save state into a slot, replacing the previous one
+     */
+    @PutMapping(value = "/games/{gameId}/states/{slot}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<SaveStateDTO> saveState(
+            @PathVariable Long gameId,
+            @PathVariable int slot,
+            HttpServletRequest request,
+            Principal principal) throws IOException {
+        User user = extractUser(principal);
+        return ResponseEntity.ok(saveStateService.saveState(user, gameId, slot, request.getInputStream()));
+    }
+
+    /**
+     * Download a save state
+     */
+    @GetMapping("/games/{gameId}/states/{slot}")
+    public ResponseEntity<StreamingResponseBody> getState(
+            @PathVariable Long gameId,
+            @PathVariable int slot,
+            Principal principal) {
+        User user = extractUser(principal);
+        long size = saveStateService.getStateSize(user, gameId, slot);
+
+        StreamingResponseBody body = out -> saveStateService.writeState(user, gameId, slot, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(size)
+                .body(body);
+    }
+
+    /**
+     * Delete a save state
+     */
+    @DeleteMapping("/games/{gameId}/states/{slot}")
+    public ResponseEntity<Map<String, String>> deleteState(
+            @PathVariable Long gameId,
+            @PathVariable int slot,
+            Principal principal) {
+        saveStateService.deleteState(extractUser(principal), gameId, slot);
+        return ResponseEntity.ok(Map.of("message", "Save state deleted successfully"));
+    }
+
+    /**
+     * Storage used by the current user's save states
+     */
+    @GetMapping("/states/usage")
+    public ResponseEntity<Map<String, Long>> getUsage(Principal principal) {
+        return ResponseEntity.ok(saveStateService.getUsage(extractUser(principal)));
+    }
+
+    private User extractUser(Principal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Vui lòng đăng nhập");
+        }
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken) {
+            Object userObj = authToken.getPrincipal();
+            if (userObj instanceof User user) {
+                return user;
+            }
+        }
+        throw new RuntimeException("Invalid authentication");
+    }
+}
@@ -0,0 +1,74 @@
+package com.nestgame.controller;
+
+import com.nestgame.dto.ScoreBoardDTO;
+import com.nestgame.dto.request.SubmitScoreRequest;
+import com.nestgame.entity.User;
+import com.nestgame.service.ScoreService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Controller for per-game high-score boards ({@code board=all|daily})
+ */
+@RestController
+@RequestMapping("/games/{gameId}/scores")
+@RequiredArgsConstructor
+public class ScoreController {
+
+    private final ScoreService scoreService;
+
+    /**
+     * Top scores of a game
+     */
+    @GetMapping
+    public ResponseEntity<ScoreBoardDTO> getBoard(
+            @PathVariable Long gameId,
+            @RequestParam(defaultValue = "all") String board,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(scoreService.getBoard(gameId, ScoreService.BoardType.parse(board), page, size));
+    }
+
+    /**
+     * Current user's rank and the entries around it
+     */
+    @GetMapping("/me")
+    public ResponseEntity<ScoreBoardDTO> getMyRank(
+            @PathVariable Long gameId,
+            @RequestParam(defaultValue = "all") String board,
+            @RequestParam(defaultValue = "5") int window,
+            Principal principal) {
+        return ResponseEntity.ok(scoreService.getRank(extractUser(principal), gameId,
+                ScoreService.BoardType.parse(board), window));
+    }
+
+    /**
+     * Submit a score
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submitScore(
+            @PathVariable Long gameId,
+            @Valid @RequestBody SubmitScoreRequest request,
+            Principal principal) {
+        return ResponseEntity.ok(scoreService.submit(extractUser(principal), gameId, request.getScore()));
+    }
+
+    private User extractUser(Principal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Vui lòng đăng nhập");
+        }
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken) {
+            Object userObj = authToken.getPrincipal();
+            if (userObj instanceof User user) {
+                return user;
+            }
+        }
+        throw new RuntimeException("Invalid authentication");
+    }
+}
@@ -0,0 +1,61 @@
+package com.nestgame.controller;
+
+import com.nestgame.dto.UserStatsDTO;
+import com.nestgame.entity.User;
+import com.nestgame.service.UserStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+
+/**
+ * Controller for profile play statistics
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final UserStatsService userStatsService;
+
+    /**
+     * Play statistics of the current user
+     */
+    @GetMapping("/users/me/stats")
+    public ResponseEntity<UserStatsDTO> getMyStats(Principal principal) {
+        return ResponseEntity.ok(userStatsService.getStats(extractUser(principal)));
+    }
+
+    /**
+     * Recompute all statistics from play history and sessions
+     */
+    @PostMapping("/admin/stats/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserStatsService.RebuildStatus> rebuild() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(userStatsService.startRebuild());
+    }
+
+    @GetMapping("/admin/stats/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserStatsService.RebuildStatus> getRebuildStatus() {
+        return ResponseEntity.ok(userStatsService.getRebuildStatus());
+    }
+
+    private User extractUser(Principal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Vui lòng đăng nhập");
+        }
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken) {
+            Object userObj = authToken.getPrincipal();
+            if (userObj instanceof User user) {
+                return user;
+            }
+        }
+        throw new RuntimeException("Invalid authentication");
+    }
+}
@@ -0,0 +1,45 @@
+package com.nestgame.controller;
+
+import com.nestgame.dto.UserSyncDTO;
+import com.nestgame.entity.User;
+import com.nestgame.service.UserChangeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+/**
+ * Controller for delta sync of the user's library
+ */
+@RestController
+@RequestMapping("/users/me/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final UserChangeService userChangeService;
+
+    /**
+     * Favorites, history and rating changes since {@code since}; omit it for a full resync
+     */
+    @GetMapping
+    public ResponseEntity<UserSyncDTO> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            Principal principal) {
+        return ResponseEntity.ok(userChangeService.getChanges(extractUser(principal), since));
+    }
+
+    private User extractUser(Principal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Vui lòng đăng nhập");
+        }
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken) {
+            Object userObj = authToken.getPrincipal();
+            if (userObj instanceof User user) {
+                return user;
+            }
+        }
+        throw new RuntimeException("Invalid authentication");
+    }
+}
@@ -1,11 +1,16 @@
 package com.nestgame.controller;
 
-import com.nestgame.dto.GameDTO;
 import com.nestgame.entity.User;
+import com.nestgame.service.GameCatalog;
+import com.nestgame.service.GameService;
+import com.nestgame.service.UserResourceVersions;
 import com.nestgame.service.UserService;
+import com.nestgame.util.ConditionalGet;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.security.Principal;
 import java.util.List;
@@ -16,7 +21,13 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserController {
 
+    /** Private to the user; always revalidated, which is a 304 while nothing changed. */
+    private static final CacheControl PRIVATE_CACHE = CacheControl.noCache().cachePrivate();
+
     private final UserService userService;
+    private final UserResourceVersions userResourceVersions;
+    private final GameCatalog gameCatalog;
+    private final GameService gameService;
 
     @PostMapping("/{gameId}")
     public ResponseEntity<Map<String, String>> addFavorite(
@@ -39,10 +50,15 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<List<GameDTO>> getUserFavorites(Principal connectedUser) {
+    public ResponseEntity<List<?>> getUserFavorites(
+            @RequestParam(required = false) String fields,
+            Principal connectedUser,
+            WebRequest request) {
         var user = (User) ((org.springframework.security.authentication.UsernamePasswordAuthenticationToken) connectedUser)
                 .getPrincipal();
-        List<GameDTO> favorites = userService.getUserFavorites(user);
-        return ResponseEntity.ok(favorites);
+        String etag = userResourceVersions.etag(user.getId(), UserResourceVersions.Resource.FAVORITES,
+                gameCatalog.version());
+        return ConditionalGet.respond(request, etag, -1, PRIVATE_CACHE,
+                () -> gameService.select(userService.getUserFavorites(user), fields));
     }
 }
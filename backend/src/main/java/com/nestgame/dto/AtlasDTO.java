@@ -0,0 +1,20 @@
+package com.nestgame.dto;
+
+import java.util.Map;
+
+/**
+ * A sprite atlas of game box art: one image plus the position of each game's tile
+ *
+ * @param complete false if some box art could not be loaded yet; such an
+ *                 atlas is not cached and the next request rebuilds it
+ */
+public record AtlasDTO(
+        String imageUrl,
+        int width,
+        int height,
+        Map<Long, Tile> tiles,
+        boolean complete) {
+
+    public record Tile(int x, int y, int width, int height) {
+    }
+}
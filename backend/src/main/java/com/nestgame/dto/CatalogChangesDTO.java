@@ -0,0 +1,24 @@
+package com.nestgame.dto;
+
+import java.util.List;
+
+/**
+ * Catalog changes after a sequence number, collapsed to the latest state per game
+ *
+ * @param seq      pass as {@code since} on the next request
+ * @param full     the log no longer reaches back that far; reload the snapshot
+ * @param more     more changes follow; ask again right away
+ * @param upserted current state of games inserted or updated
+ * @param deleted  ids of games deleted
+ */
+public record CatalogChangesDTO(
+        long seq,
+        boolean full,
+        boolean more,
+        List<?> upserted,
+        List<Long> deleted) {
+
+    public static CatalogChangesDTO fullResync(long seq) {
+        return new CatalogChangesDTO(seq, true, false, List.of(), List.of());
+    }
+}
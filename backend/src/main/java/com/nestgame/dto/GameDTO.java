@@ -21,6 +21,9 @@ public record GameDTO(
                 String imageUrl,
                 String imageSnap,
                 String imageTitle,
+                String thumbnailUrl,
+                String thumbnailSnap,
+                String thumbnailTitle,
                 Integer playCount,
                 LocalDateTime createdAt,
                 LocalDateTime updatedAt) {
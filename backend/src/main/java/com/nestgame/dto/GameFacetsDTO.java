@@ -0,0 +1,19 @@
+package com.nestgame.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of filtered games with facet counts
+ *
+ * @param total  number of games matching the filter
+ * @param facets per dimension (category, region, year, featured), how many
+ *               games each value would match with the other filters applied
+ */
+public record GameFacetsDTO(
+        int total,
+        int page,
+        int size,
+        List<?> games,
+        Map<String, Map<String, Integer>> facets) {
+}
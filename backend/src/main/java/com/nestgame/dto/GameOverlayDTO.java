@@ -0,0 +1,16 @@
+package com.nestgame.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The current user's state for one game card
+ *
+ * @param rating own rating, null if not rated
+ * @param lastPlayedAt null if not in the play history
+ */
+public record GameOverlayDTO(
+        Long gameId,
+        boolean favorite,
+        Integer rating,
+        LocalDateTime lastPlayedAt) {
+}
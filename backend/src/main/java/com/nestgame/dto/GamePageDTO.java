@@ -0,0 +1,20 @@
+package com.nestgame.dto;
+
+import java.util.List;
+
+/**
+ * One page of games
+ *
+ * @param content games, whole or trimmed to the requested fields
+ * @param hasNext another page follows
+ * @param total   number of matching games; null when counting was skipped
+ * @param exact   whether {@code total} is exact rather than an estimate
+ */
+public record GamePageDTO(
+        List<?> content,
+        int page,
+        int size,
+        boolean hasNext,
+        Long total,
+        boolean exact) {
+}
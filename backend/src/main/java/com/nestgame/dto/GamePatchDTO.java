@@ -0,0 +1,13 @@
+package com.nestgame.dto;
+
+import java.time.LocalDateTime;
+
+public record GamePatchDTO(
+        Long id,
+        Long gameId,
+        String name,
+        String language,
+        String format,
+        Long sizeBytes,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,26 @@
+package com.nestgame.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record NetplayRoomDTO(
+        Long id,
+        Long gameId,
+        boolean privateRoom,
+        boolean solo,
+        List<Player> players,
+        int spectators,
+        LocalDateTime createdAt,
+        LocalDateTime startedAt) {
+
+    public record Player(
+            Long userId,
+            String username,
+            int port,
+            double latencyMs,
+            double jitterMs,
+            long framesSent,
+            long framesDropped,
+            double relayMicros) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.nestgame.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ReplayDTO(
+        Long id,
+        Long gameId,
+        String gameName,
+        Long userId,
+        String username,
+        String title,
+        Integer ports,
+        Long frameCount,
+        Long sizeBytes,
+        List<Keyframe> keyframes,
+        LocalDateTime createdAt) {
+
+    /**
+     * @param saveStateId on upload, the save state to copy into the keyframe
+     * @param stateUrl    where the copied state is served; null without one
+     */
+    public record Keyframe(Long frame, Long saveStateId, String stateUrl) {
+    }
+}
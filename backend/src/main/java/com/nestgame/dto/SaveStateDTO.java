@@ -0,0 +1,11 @@
+package com.nestgame.dto;
+
+import java.time.LocalDateTime;
+
+public record SaveStateDTO(
+        Long id,
+        Long gameId,
+        Integer slot,
+        Long sizeBytes,
+        LocalDateTime createdAt) {
+}
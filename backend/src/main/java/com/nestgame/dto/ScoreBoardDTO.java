@@ -0,0 +1,15 @@
+package com.nestgame.dto;
+
+import java.util.List;
+
+/**
+ * A page of a score board, or the window around one user when {@code rank} is set
+ */
+public record ScoreBoardDTO(
+        Long gameId,
+        String board,
+        int total,
+        Integer rank,
+        Long score,
+        List<ScoreEntryDTO> entries) {
+}
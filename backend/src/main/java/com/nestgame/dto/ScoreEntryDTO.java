@@ -0,0 +1,12 @@
+package com.nestgame.dto;
+
+import java.time.LocalDateTime;
+
+public record ScoreEntryDTO(
+        int rank,
+        Long userId,
+        String username,
+        String avatarUrl,
+        long score,
+        LocalDateTime achievedAt) {
+}
@@ -0,0 +1,24 @@
+package com.nestgame.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record UserStatsDTO(
+        long totalPlays,
+        long totalSeconds,
+        LocalDate firstPlayedOn,
+        LocalDate lastPlayedOn,
+        int currentStreak,
+        int longestStreak,
+        List<Bucket> byCategory,
+        List<Bucket> byRegion,
+        List<Bucket> byYear,
+        List<GamePlayStats> mostPlayed) {
+
+    public record Bucket(String name, long plays, long seconds) {
+    }
+
+    public record GamePlayStats(GameDTO game, long plays, long seconds, LocalDateTime lastPlayedAt) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.nestgame.dto;
+
+import java.util.List;
+
+/**
+ * Library changes since the client's version, as game ids.
+ *
+ * When {@code full} is true the lists are empty and the client must reload
+ * favorites, history and ratings, then continue from {@code version}.
+ * Ids within a list are ordered oldest change first.
+ */
+public record UserSyncDTO(
+        long version,
+        boolean full,
+        List<Long> favoritesAdded,
+        List<Long> favoritesRemoved,
+        List<Long> played,
+        List<Long> historyRemoved,
+        List<Long> rated,
+        List<Long> ratingsRemoved) {
+
+    public static UserSyncDTO fullResync(long version) {
+        return new UserSyncDTO(version, true, List.of(), List.of(), List.of(), List.of(), List.of(), List.of());
+    }
+}
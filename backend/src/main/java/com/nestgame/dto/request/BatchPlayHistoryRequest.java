@@ -0,0 +1,35 @@
+package com.nestgame.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchPlayHistoryRequest {
+    @NotEmpty
+    @Size(max = 100)
+    @Valid
+    private List<Play> plays;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Play {
+        @NotNull
+        private Long gameId;
+
+        @NotNull
+        private Instant playedAt;
+    }
+}
@@ -0,0 +1,20 @@
+package com.nestgame.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OverlayRequest {
+    @NotNull
+    @Size(max = 200)
+    private List<@NotNull Long> gameIds;
+}
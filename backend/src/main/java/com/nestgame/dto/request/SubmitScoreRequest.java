@@ -0,0 +1,20 @@
+package com.nestgame.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubmitScoreRequest {
+    @NotNull
+    @Min(0)
+    @Max(999_999_999_999L)
+    private Long score;
+}
@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "games")
+@EntityListeners(GameEntityListener.class)
 @Data
 @Builder
 @NoArgsConstructor
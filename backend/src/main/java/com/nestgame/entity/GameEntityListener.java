@@ -0,0 +1,30 @@
+package com.nestgame.entity;
+
+import com.nestgame.event.GameChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns JPA lifecycle callbacks on {@link Game} into {@link GameChangedEvent}s
+ */
+@Component
+@RequiredArgsConstructor
+public class GameEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Game game) {
+        eventPublisher.publishEvent(new GameChangedEvent(game.getId(), false));
+    }
+
+    @PostRemove
+    public void onRemoved(Game game) {
+        eventPublisher.publishEvent(new GameChangedEvent(game.getId(), true));
+    }
+}
@@ -0,0 +1,50 @@
+package com.nestgame.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity for IPS/BPS patches (e.g. fan translations) that can be applied to a game's ROM
+ */
+@Entity
+@Table(name = "game_patches")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GamePatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "game_id", nullable = false)
+    private Game game;
+
+    @Column(nullable = false)
+    private String name;
+
+    private String language;
+
+    @Column(nullable = false)
+    private String format; // IPS, BPS
+
+    @Column(name = "patch_hash", nullable = false)
+    private String patchHash; // SHA-256 of the patch file
+
+    @Column(name = "source_crc32")
+    private Long sourceCrc32;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,52 @@
+package com.nestgame.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity for a recorded input replay. The encoded input stream lives on disk;
+ * this row holds its metadata and seek index.
+ */
+@Entity
+@Table(name = "replays")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Replay {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "game_id", nullable = false)
+    private Game game;
+
+    private String title;
+
+    @Column(nullable = false)
+    private Short ports;
+
+    @Column(name = "frame_count", nullable = false)
+    private Long frameCount;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "seek_index", nullable = false)
+    private byte[] seekIndex; // varint (frame, offset) deltas, see ReplayCodec
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
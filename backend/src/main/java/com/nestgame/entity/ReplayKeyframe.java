@@ -0,0 +1,38 @@
+package com.nestgame.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity for a replay frame with the emulator state captured at that frame.
+ * The state is a copy owned by the replay, so later saves into the slot it
+ * came from do not change it.
+ */
+@Entity
+@Table(name = "replay_keyframes", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "replay_id", "frame" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayKeyframe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "replay_id", nullable = false)
+    private Replay replay;
+
+    @Column(nullable = false)
+    private Long frame;
+
+    /** Uncompressed size of the copied state; null if the keyframe has none */
+    @Column(name = "state_size")
+    private Long stateSize;
+}
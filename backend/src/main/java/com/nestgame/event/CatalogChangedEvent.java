@@ -0,0 +1,15 @@
+package com.nestgame.event;
+
+import java.util.List;
+
+/**
+ * Published on every node for each batch of entries read from the catalog
+ * change log, in log order. Unlike {@link GameChangedEvent} it also covers
+ * changes committed by other nodes.
+ *
+ * @param seq      sequence number of the last entry in the batch
+ * @param upserted games inserted or updated
+ * @param deleted  games deleted
+ */
+public record CatalogChangedEvent(long seq, List<Long> upserted, List<Long> deleted) {
+}
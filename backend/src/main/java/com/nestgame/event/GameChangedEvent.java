@@ -0,0 +1,7 @@
+package com.nestgame.event;
+
+/**
+ * Published whenever a game row is inserted, updated or deleted.
+ */
+public record GameChangedEvent(Long gameId, boolean deleted) {
+}
@@ -0,0 +1,77 @@
+package com.nestgame.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Append-only log of game inserts, updates and deletes.
+ *
+ * Sequence numbers come from a BIGSERIAL, which hands them out at insert
+ * time rather than commit time. Appending therefore takes a transaction-level
+ * advisory lock first, so writers commit in sequence order and a reader that
+ * has seen seq n never misses a later commit with a smaller seq. Only
+ * catalog edits are logged; play counts and ratings are updated in SQL
+ * without a log entry, so appends stay rare enough to serialize.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogChangeRepository {
+
+    /** Advisory lock key of the log; any constant unique within the database. */
+    private static final long APPEND_LOCK = 0x6361_7461_6c6f_67L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record ChangeRow(long seq, long gameId, boolean deleted) {
+    }
+
+    /**
+     * Append one change in the caller's transaction
+     */
+    public void append(Long gameId, boolean deleted) {
+        jdbcTemplate.update("""
+                WITH locked AS (SELECT pg_advisory_xact_lock(?))
+                INSERT INTO catalog_changes (game_id, deleted)
+                SELECT ?, ? FROM locked
+                """, APPEND_LOCK, gameId, deleted);
+    }
+
+    /**
+     * Changes with {@code since < seq <= until}, oldest first, at most {@code limit}
+     */
+    public List<ChangeRow> findChanges(long since, long until, int limit) {
+        return jdbcTemplate.query("""
+                SELECT seq, game_id, deleted FROM catalog_changes
+                WHERE seq > ? AND seq <= ? ORDER BY seq LIMIT ?
+                """, (rs, i) -> new ChangeRow(rs.getLong(1), rs.getLong(2), rs.getBoolean(3)),
+                since, until, limit);
+    }
+
+    /**
+     * @return {@code [oldest, latest]} retained seq, both 0 if the log is empty
+     */
+    public long[] findBounds() {
+        return jdbcTemplate.queryForObject("""
+                SELECT COALESCE(MIN(seq), 0), COALESCE(MAX(seq), 0) FROM catalog_changes
+                """, (rs, i) -> new long[] { rs.getLong(1), rs.getLong(2) });
+    }
+
+    /**
+     * Drop entries older than {@code cutoff}. The newest entry is always
+     * kept so the latest seq survives a quiet period.
+     *
+     * @return number of entries removed
+     */
+    public int truncateBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("""
+                DELETE FROM catalog_changes
+                WHERE seq <= (SELECT MAX(seq) FROM catalog_changes WHERE created_at < ?)
+                  AND seq < (SELECT MAX(seq) FROM catalog_changes)
+                """, Timestamp.valueOf(cutoff));
+    }
+}
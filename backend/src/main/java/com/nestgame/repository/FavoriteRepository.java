@@ -0,0 +1,58 @@
+package com.nestgame.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Rows of the favorites join table.
+ *
+ * Plain JDBC so adding or removing a favorite is one statement, instead of
+ * loading the user's whole {@code favorites} collection of Game entities and
+ * rewriting it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FavoriteRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return false if the game does not exist or is already a favorite
+     */
+    public boolean add(Long userId, Long gameId) {
+        return jdbcTemplate.update("""
+                INSERT INTO favorites (user_id, game_id)
+                SELECT ?, id FROM games WHERE id = ?
+                ON CONFLICT (user_id, game_id) DO NOTHING
+                """, userId, gameId) > 0;
+    }
+
+    /**
+     * @return false if the game was not a favorite
+     */
+    public boolean remove(Long userId, Long gameId) {
+        return jdbcTemplate.update("DELETE FROM favorites WHERE user_id = ? AND game_id = ?", userId, gameId) > 0;
+    }
+
+    /**
+     * Favorite game ids, ascending
+     */
+    public long[] findGameIds(Long userId) {
+        return jdbcTemplate.queryForList("SELECT game_id FROM favorites WHERE user_id = ? ORDER BY game_id",
+                Long.class, userId).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    /**
+     * Favorite game ids, most recently added first
+     */
+    public List<Long> findGameIdsByRecent(Long userId) {
+        return jdbcTemplate.queryForList("""
+                SELECT game_id FROM favorites WHERE user_id = ? ORDER BY created_at DESC, id DESC
+                """, Long.class, userId);
+    }
+}
@@ -0,0 +1,16 @@
+package com.nestgame.repository;
+
+import com.nestgame.entity.GamePatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GamePatchRepository extends JpaRepository<GamePatch, Long> {
+
+    List<GamePatch> findByGameIdOrderByNameAsc(Long gameId);
+
+    Optional<GamePatch> findByIdAndGameId(Long id, Long gameId);
+}
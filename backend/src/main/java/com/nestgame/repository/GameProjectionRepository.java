@@ -0,0 +1,130 @@
+package com.nestgame.repository;
+
+import com.nestgame.entity.Game;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Game list queries that skip what the caller does not need: columns
+ * outside a sparse fieldset, and the {@code COUNT(*)} that Spring Data runs
+ * for every page.
+ *
+ * Projected results are detached {@link Game} instances with just the
+ * selected attributes set, so they can go through the regular mapper; never
+ * save them.
+ */
+@Repository
+public class GameProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Games of the page at {@code pageable}, reading at most {@code limit}
+     * rows; ask for one more than the page size to learn whether a next
+     * page exists without counting
+     *
+     * @param attributes Game attribute names, or null for whole games;
+     *                   {@code category} selects the category's id and name
+     */
+    public List<Game> findAll(Specification<Game> spec, Pageable pageable, Set<String> attributes, int limit) {
+        if (attributes == null) {
+            return findEntities(spec, pageable, limit);
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Game> root = query.from(Game.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String attribute : attributes) {
+            if (attribute.equals("category")) {
+                Join<Game, ?> category = root.join("category", JoinType.LEFT);
+                selections.add(category.get("id").alias("category.id"));
+                selections.add(category.get("name").alias("category.name"));
+            } else {
+                selections.add(root.get(attribute).alias(attribute));
+            }
+        }
+        query.multiselect(selections);
+        if (spec != null) {
+            query.where(spec.toPredicate(root, query, cb));
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<Game> games = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Game game = new Game();
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(game);
+            wrapper.setAutoGrowNestedPaths(true);
+            for (TupleElement<?> element : row.getElements()) {
+                Object value = row.get(element);
+                if (value != null) {
+                    wrapper.setPropertyValue(element.getAlias(), value);
+                }
+            }
+            games.add(game);
+        }
+        return games;
+    }
+
+    public long count(Specification<Game> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Game> root = query.from(Game.class);
+        query.select(cb.count(root));
+        if (spec != null) {
+            query.where(spec.toPredicate(root, query, cb));
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Row count of the games table from planner statistics
+     *
+     * @return the estimate, or -1 if the table has not been analyzed yet
+     */
+    public long estimateCount() {
+        Number estimate = (Number) entityManager
+                .createNativeQuery("SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('games' AS regclass)")
+                .getSingleResult();
+        return estimate.longValue();
+    }
+
+    private List<Game> findEntities(Specification<Game> spec, Pageable pageable, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Game> query = cb.createQuery(Game.class);
+        Root<Game> root = query.from(Game.class);
+        root.fetch("category", JoinType.LEFT);
+        if (spec != null) {
+            query.where(spec.toPredicate(root, query, cb));
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +18,12 @@ public interface GameRatingRepository extends JpaRepository<GameRating, Long> {
 
     List<GameRating> findByUserId(Long userId);
 
+    /**
+     * (gameId, rating) pairs of one user's ratings among {@code gameIds}
+     */
+    @Query("SELECT r.game.id, r.rating FROM GameRating r WHERE r.user.id = :userId AND r.game.id IN :gameIds")
+    List<Object[]> findRatingsByUserIdAndGameIds(Long userId, Collection<Long> gameIds);
+
     @Query("SELECT AVG(r.rating) FROM GameRating r WHERE r.game.id = :gameId")
     Double getAverageRatingByGameId(Long gameId);
 
@@ -3,8 +3,11 @@ package com.nestgame.repository;
 import com.nestgame.entity.Game;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -14,4 +17,18 @@ public interface GameRepository extends JpaRepository<Game, Long>, JpaSpecificat
     List<Game> findByCategoryId(Long categoryId);
 
     List<Game> findTop10ByOrderByRatingDesc();
+
+    /**
+     * @return {@code [id, playCount, rating]} of every game
+     */
+    @Query("SELECT g.id, g.playCount, g.rating FROM Game g")
+    List<Object[]> findAggregates();
+
+    /**
+     * Set the average rating without entity callbacks, so the change stays
+     * out of the catalog change log
+     */
+    @Modifying
+    @Query("UPDATE Game g SET g.rating = :rating, g.updatedAt = :updatedAt WHERE g.id = :id")
+    int updateRating(Long id, Double rating, LocalDateTime updatedAt);
 }
@@ -0,0 +1,76 @@
+package com.nestgame.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Best score per user, game and day.
+ *
+ * Plain JDBC because submissions are conditional upserts and the startup
+ * load streams every row once without building entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GameScoreRepository {
+
+    private static final int FETCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @FunctionalInterface
+    public interface ScoreRowHandler {
+        void handle(long gameId, long userId, long score, LocalDateTime achievedAt);
+    }
+
+    /**
+     * Record a score if it beats the user's best of that day
+     *
+     * @return true if the stored score changed
+     */
+    public boolean submit(Long userId, Long gameId, LocalDate date, long score, LocalDateTime achievedAt) {
+        int updated = jdbcTemplate.update("""
+                INSERT INTO game_scores (user_id, game_id, score_date, score, achieved_at)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (user_id, game_id, score_date) DO UPDATE
+                    SET score = EXCLUDED.score, achieved_at = EXCLUDED.achieved_at
+                    WHERE game_scores.score < EXCLUDED.score
+                """, userId, gameId, date, score, Timestamp.valueOf(achievedAt));
+        return updated > 0;
+    }
+
+    /**
+     * Stream each user's all-time best per game
+     */
+    public void forEachBest(ScoreRowHandler handler) {
+        query("""
+                SELECT DISTINCT ON (game_id, user_id) game_id, user_id, score, achieved_at
+                FROM game_scores
+                ORDER BY game_id, user_id, score DESC, achieved_at
+                """, handler);
+    }
+
+    /**
+     * Stream the scores of one day
+     */
+    public void forEachOnDate(LocalDate date, ScoreRowHandler handler) {
+        query("SELECT game_id, user_id, score, achieved_at FROM game_scores WHERE score_date = ?", handler, date);
+    }
+
+    private void query(String sql, ScoreRowHandler handler, Object... args) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, rs -> {
+            handler.handle(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getTimestamp(4).toLocalDateTime());
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.nestgame.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based merge of many plays into play_history.
+ *
+ * Plain JDBC because the whole batch goes to the database as two arrays and
+ * is merged by one statement, instead of a find/save round trip per game.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PlayHistoryBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record PlayRow(Long gameId, LocalDateTime playedAt) {
+    }
+
+    /**
+     * Merge plays into the user's history; the newest play of a game wins.
+     * Plays no newer than what is already stored (e.g. a resent batch) are
+     * ignored, and the rest are added to games.play_count.
+     *
+     * @return the plays that were accepted
+     */
+    public List<PlayRow> merge(Long userId, List<PlayRow> plays) {
+        Long[] gameIds = plays.stream().map(PlayRow::gameId).toArray(Long[]::new);
+        Timestamp[] playedAts = plays.stream().map(p -> Timestamp.valueOf(p.playedAt())).toArray(Timestamp[]::new);
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    WITH input AS (
+                        SELECT t.game_id, t.played_at
+                        FROM unnest(?, ?) AS t(game_id, played_at)
+                        JOIN games g ON g.id = t.game_id
+                    ), fresh AS (
+                        SELECT i.game_id, i.played_at
+                        FROM input i
+                        LEFT JOIN play_history h ON h.user_id = ? AND h.game_id = i.game_id
+                        WHERE h.played_at IS NULL OR i.played_at > h.played_at
+                    ), latest AS (
+                        SELECT game_id, MAX(played_at) AS played_at, COUNT(*) AS plays
+                        FROM fresh GROUP BY game_id
+                    ), merged AS (
+                        INSERT INTO play_history (user_id, game_id, played_at)
+                        SELECT ?, game_id, played_at FROM latest
+                        ON CONFLICT (user_id, game_id) DO UPDATE
+                            SET played_at = GREATEST(play_history.played_at, EXCLUDED.played_at)
+                    ), counted AS (
+                        UPDATE games g SET play_count = COALESCE(g.play_count, 0) + l.plays
+                        FROM latest l WHERE g.id = l.game_id
+                    )
+                    SELECT game_id, played_at FROM fresh
+                    """);
+            ps.setArray(1, con.createArrayOf("bigint", gameIds));
+            ps.setArray(2, con.createArrayOf("timestamp", playedAts));
+            ps.setLong(3, userId);
+            ps.setLong(4, userId);
+            return ps;
+        }, (rs, i) -> new PlayRow(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()));
+    }
+
+    /**
+     * Keep only the user's {@code limit} most recent entries
+     *
+     * @return game ids of the entries removed
+     */
+    public List<Long> trim(Long userId, int limit) {
+        return jdbcTemplate.queryForList("""
+                DELETE FROM play_history
+                WHERE user_id = ? AND id NOT IN (
+                    SELECT id FROM play_history WHERE user_id = ?
+                    ORDER BY played_at DESC NULLS LAST, id DESC LIMIT ?)
+                RETURNING game_id
+                """, Long.class, userId, userId, limit);
+    }
+}
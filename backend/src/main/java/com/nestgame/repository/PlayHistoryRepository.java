@@ -4,8 +4,10 @@ import com.nestgame.entity.Game;
 import com.nestgame.entity.PlayHistory;
 import com.nestgame.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +20,10 @@ public interface PlayHistoryRepository extends JpaRepository<PlayHistory, Long>
     Optional<PlayHistory> findTopByUserOrderByPlayedAtAsc(User user);
 
     long countByUser(User user);
+
+    /**
+     * (gameId, playedAt) pairs of one user's history among {@code gameIds}
+     */
+    @Query("SELECT h.game.id, h.playedAt FROM PlayHistory h WHERE h.user.id = :userId AND h.game.id IN :gameIds")
+    List<Object[]> findPlayedAtByUserIdAndGameIds(Long userId, Collection<Long> gameIds);
 }
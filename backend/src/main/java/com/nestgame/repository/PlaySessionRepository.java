@@ -0,0 +1,81 @@
+package com.nestgame.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Completed play sessions and the play time rolled up into play_history.
+ *
+ * Plain JDBC so a flush is one batched insert and one batched update no
+ * matter how many sessions ended. play_sessions is partitioned by month;
+ * partitions are created the first time a month is written.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PlaySessionRepository {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Set<YearMonth> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    public record SessionRow(Long userId, Long gameId, LocalDateTime startedAt, LocalDateTime endedAt,
+            int durationSeconds, int heartbeats) {
+    }
+
+    public record DurationDelta(Long userId, Long gameId, int seconds) {
+    }
+
+    /**
+     * Create missing monthly partitions. Run outside the insert's transaction
+     * so a rolled back flush cannot leave a partition marked as created.
+     */
+    public void ensurePartitions(List<SessionRow> sessions) {
+        sessions.stream()
+                .map(s -> YearMonth.from(s.startedAt()))
+                .distinct()
+                .forEach(this::ensurePartition);
+    }
+
+    public void insertSessions(List<SessionRow> sessions) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO play_sessions (user_id, game_id, started_at, ended_at, duration_seconds, heartbeats)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, sessions.stream()
+                .map(s -> new Object[] { s.userId(), s.gameId(), Timestamp.valueOf(s.startedAt()),
+                        Timestamp.valueOf(s.endedAt()), s.durationSeconds(), s.heartbeats() })
+                .toList());
+    }
+
+    /**
+     * Add play time to the matching play_history rows
+     */
+    public void addDurations(Collection<DurationDelta> deltas) {
+        jdbcTemplate.batchUpdate("""
+                UPDATE play_history SET duration_seconds = COALESCE(duration_seconds, 0) + ?
+                WHERE user_id = ? AND game_id = ?
+                """, deltas.stream()
+                .map(d -> new Object[] { d.seconds(), d.userId(), d.gameId() })
+                .toList());
+    }
+
+    private void ensurePartition(YearMonth month) {
+        if (knownPartitions.contains(month)) {
+            return;
+        }
+        jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS play_sessions_%s PARTITION OF play_sessions FOR VALUES FROM ('%s') TO ('%s')",
+                month.format(PARTITION_SUFFIX), month.atDay(1), month.plusMonths(1).atDay(1)));
+        knownPartitions.add(month);
+    }
+}
@@ -0,0 +1,29 @@
+package com.nestgame.repository;
+
+import com.nestgame.entity.ReplayKeyframe;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReplayKeyframeRepository extends JpaRepository<ReplayKeyframe, Long> {
+
+    List<ReplayKeyframe> findByReplayIdOrderByFrameAsc(Long replayId);
+
+    /**
+     * Latest keyframe with a save state at or before the given frame
+     */
+    Optional<ReplayKeyframe> findFirstByReplayIdAndFrameLessThanEqualAndStateSizeIsNotNullOrderByFrameDesc(
+            Long replayId, Long frame);
+
+    Optional<ReplayKeyframe> findByReplayIdAndFrame(Long replayId, Long frame);
+
+    @Modifying
+    @Query("DELETE FROM ReplayKeyframe k WHERE k.replay.id = :replayId")
+    void deleteByReplayId(@Param("replayId") Long replayId);
+}
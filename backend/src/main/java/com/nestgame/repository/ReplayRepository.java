@@ -0,0 +1,18 @@
+package com.nestgame.repository;
+
+import com.nestgame.entity.Replay;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReplayRepository extends JpaRepository<Replay, Long> {
+
+    @EntityGraph(attributePaths = "user")
+    Page<Replay> findByGameIdOrderByCreatedAtDesc(Long gameId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "game")
+    Page<Replay> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+}
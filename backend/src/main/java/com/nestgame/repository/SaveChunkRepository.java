@@ -0,0 +1,128 @@
+package com.nestgame.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference counts of save-state chunks per user.
+ *
+ * Plain JDBC because these are set-based upserts on a composite key, which
+ * JPA would turn into a select plus an update per chunk.
+ *
+ * Dropping the last reference leaves the row behind with a count of zero.
+ * Once that has committed, {@link #deleteUnreferenced} deletes the row and
+ * the file is removed before that deletion commits: an upload claiming the
+ * same chunk meanwhile blocks on the row, and afterwards finds the file
+ * gone and writes it again. Nothing ever deletes a file that a committed
+ * row still needs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SaveChunkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Total compressed bytes of all chunks a user stores
+     */
+    public long getUsedBytes(Long userId) {
+        Long used = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(stored_size), 0) FROM save_chunks WHERE user_id = ? AND ref_count > 0",
+                Long.class, userId);
+        return used != null ? used : 0;
+    }
+
+    /**
+     * @param storedSize compressed size, 0 until the file has been written once
+     * @param created    whether the claim created the chunk, or revived one
+     *                   nobody referenced any more
+     */
+    public record Claim(int storedSize, boolean created) {
+    }
+
+    /**
+     * Add one reference to each chunk, creating rows for new chunks. The
+     * references keep the chunks alive while their files are written.
+     *
+     * @param hashes distinct hashes
+     */
+    public Map<String, Claim> claim(Long userId, Collection<String> hashes) {
+        Map<String, Claim> claims = new HashMap<>();
+        jdbcTemplate.query("""
+                INSERT INTO save_chunks (user_id, hash, stored_size, ref_count)
+                SELECT ?, hash, 0, 1 FROM unnest(?) AS hash
+                ON CONFLICT (user_id, hash) DO UPDATE SET ref_count = save_chunks.ref_count + 1
+                RETURNING hash, stored_size, ref_count = 1
+                """, rs -> {
+            claims.put(rs.getString(1), new Claim(rs.getInt(2), rs.getBoolean(3)));
+        }, userId, hashes.stream().sorted().toArray(String[]::new)); // one lock order for concurrent claims
+        return claims;
+    }
+
+    /**
+     * @param sizes hash -> stored (compressed) size
+     */
+    public void setStoredSizes(Long userId, Map<String, Integer> sizes) {
+        List<Object[]> rows = sizes.entrySet().stream()
+                .map(e -> new Object[] { e.getValue(), userId, e.getKey() })
+                .toList();
+        jdbcTemplate.batchUpdate("UPDATE save_chunks SET stored_size = ? WHERE user_id = ? AND hash = ?", rows);
+    }
+
+    /**
+     * Compressed bytes of the chunks only one state references, i.e. what
+     * dropping one reference from each would free
+     */
+    public long getUnsharedBytes(Long userId, Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return 0;
+        }
+        Long bytes = jdbcTemplate.queryForObject("""
+                SELECT COALESCE(SUM(stored_size), 0) FROM save_chunks
+                WHERE user_id = ? AND hash = ANY (?) AND ref_count = 1
+                """, Long.class, userId, hashes.toArray(String[]::new));
+        return bytes != null ? bytes : 0;
+    }
+
+    /**
+     * Drop one reference from each chunk
+     *
+     * @return hashes of the chunks nobody references any more, to pass to
+     *         {@link #deleteUnreferenced} once the transaction has committed
+     */
+    public List<String> removeReferences(Long userId, Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList("""
+                UPDATE save_chunks SET ref_count = ref_count - 1
+                WHERE user_id = ? AND hash = ANY (?)
+                RETURNING hash, ref_count
+                """, userId, hashes.toArray(String[]::new)).stream()
+                .filter(row -> ((Number) row.get("ref_count")).intValue() <= 0)
+                .map(row -> (String) row.get("hash"))
+                .toList();
+    }
+
+    /**
+     * Delete the chunks that are still unreferenced; chunks claimed again
+     * in the meantime are kept
+     *
+     * @return hashes of the deleted chunks, whose files must be removed
+     *         before the transaction commits
+     */
+    public List<String> deleteUnreferenced(Long userId, Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "DELETE FROM save_chunks WHERE user_id = ? AND hash = ANY (?) AND ref_count <= 0 RETURNING hash",
+                String.class, userId, hashes.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,25 @@
+package com.nestgame.repository;
+
+import com.nestgame.entity.SaveState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SaveStateRepository extends JpaRepository<SaveState, Long> {
+
+    List<SaveState> findByUserIdAndGameIdOrderBySlotAsc(Long userId, Long gameId);
+
+    Optional<SaveState> findByUserIdAndGameIdAndSlot(Long userId, Long gameId, Integer slot);
+
+    /**
+     * Locks the slot's row, so concurrent replaces and deletes of one slot
+     * each drop the references of a different old state
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<SaveState> findWithLockByUserIdAndGameIdAndSlot(Long userId, Long gameId, Integer slot);
+}
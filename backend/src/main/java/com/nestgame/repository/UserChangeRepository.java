@@ -0,0 +1,125 @@
+package com.nestgame.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-user log of library changes for delta sync.
+ *
+ * Each user has a version counter in user_change_versions. Appending bumps
+ * it with an upsert, which locks the counter row until commit, so a user's
+ * changes become visible in version order and a client that has seen
+ * version v never misses a later commit with a smaller version.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserChangeRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param family  favorite, history or rating
+     * @param removed the game left the list rather than being added or touched
+     */
+    public record Change(String family, Long gameId, boolean removed) {
+    }
+
+    public record ChangeRow(long version, String family, long gameId, boolean removed) {
+    }
+
+    public record VersionRow(long version, long compactedThrough) {
+    }
+
+    /**
+     * Append changes in the caller's transaction
+     */
+    public void append(Long userId, List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        String[] families = changes.stream().map(Change::family).toArray(String[]::new);
+        Long[] gameIds = changes.stream().map(Change::gameId).toArray(Long[]::new);
+        Boolean[] removed = changes.stream().map(Change::removed).toArray(Boolean[]::new);
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    WITH bumped AS (
+                        INSERT INTO user_change_versions (user_id, version) VALUES (?, ?)
+                        ON CONFLICT (user_id) DO UPDATE SET version = user_change_versions.version + EXCLUDED.version
+                        RETURNING version
+                    )
+                    INSERT INTO user_changes (user_id, version, family, game_id, removed)
+                    SELECT ?, bumped.version - ? + c.ord, c.family, c.game_id, c.removed
+                    FROM bumped, unnest(?, ?, ?) WITH ORDINALITY AS c(family, game_id, removed, ord)
+                    """);
+            ps.setLong(1, userId);
+            ps.setLong(2, changes.size());
+            ps.setLong(3, userId);
+            ps.setLong(4, changes.size());
+            ps.setArray(5, con.createArrayOf("varchar", families));
+            ps.setArray(6, con.createArrayOf("bigint", gameIds));
+            ps.setArray(7, con.createArrayOf("boolean", removed));
+            return ps;
+        });
+    }
+
+    public Optional<VersionRow> findVersion(Long userId) {
+        return jdbcTemplate.query("SELECT version, compacted_through FROM user_change_versions WHERE user_id = ?",
+                (rs, i) -> new VersionRow(rs.getLong(1), rs.getLong(2)), userId).stream().findFirst();
+    }
+
+    /**
+     * Changes with {@code since < version <= until}, oldest first, at most {@code limit}
+     */
+    public List<ChangeRow> findChanges(Long userId, long since, long until, int limit) {
+        return jdbcTemplate.query("""
+                SELECT version, family, game_id, removed FROM user_changes
+                WHERE user_id = ? AND version > ? AND version <= ?
+                ORDER BY version LIMIT ?
+                """, (rs, i) -> new ChangeRow(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getBoolean(4)),
+                userId, since, until, limit);
+    }
+
+    /**
+     * Drop entries superseded by a later change of the same game and list.
+     * Clients behind them still get the later entry, so nothing is lost.
+     *
+     * @return number of entries removed
+     */
+    public int removeSuperseded() {
+        return jdbcTemplate.update("""
+                DELETE FROM user_changes c
+                USING user_changes later
+                WHERE later.user_id = c.user_id AND later.family = c.family
+                  AND later.game_id = c.game_id AND later.version > c.version
+                """);
+    }
+
+    /**
+     * Drop entries older than {@code cutoff} and raise each user's
+     * compaction watermark past them; clients behind it must resync fully.
+     *
+     * @return number of entries removed
+     */
+    public int truncateBefore(LocalDateTime cutoff) {
+        Integer removed = jdbcTemplate.queryForObject("""
+                WITH gone AS (
+                    DELETE FROM user_changes WHERE created_at < ? RETURNING user_id, version
+                ), latest AS (
+                    SELECT user_id, MAX(version) AS version FROM gone GROUP BY user_id
+                ), raised AS (
+                    UPDATE user_change_versions v SET compacted_through = GREATEST(v.compacted_through, l.version)
+                    FROM latest l WHERE v.user_id = l.user_id
+                )
+                SELECT COUNT(*) FROM gone
+                """, Integer.class, Timestamp.valueOf(cutoff));
+        return removed != null ? removed : 0;
+    }
+}
@@ -0,0 +1,260 @@
+package com.nestgame.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-user play statistics rollups.
+ *
+ * Writers apply deltas with upserts so reads are primary-key lookups. The
+ * rebuild methods recompute a range of users from play_history and
+ * play_sessions. play_history only keeps each user's latest rows, so days
+ * played are lost once they fall out of it; a rebuild never moves
+ * first_played_on later or longest_streak lower than the stored values.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserStatsRepository {
+
+    private static final String DIMENSIONS = """
+            CROSS JOIN LATERAL (VALUES
+                ('category', COALESCE(c.name, 'other')),
+                ('region', COALESCE(g.region, 'unknown')),
+                ('year', COALESCE(g.year::text, 'unknown'))) AS d(dimension, bucket)
+            """;
+
+    /** Streak after playing on {@code EXCLUDED.last_played_on}; references the old row. */
+    private static final String NEW_STREAK = """
+            CASE
+                WHEN EXCLUDED.last_played_on IS NULL THEN user_stats.current_streak
+                WHEN user_stats.last_played_on IS NULL THEN 1
+                WHEN EXCLUDED.last_played_on <= user_stats.last_played_on THEN user_stats.current_streak
+                WHEN EXCLUDED.last_played_on = user_stats.last_played_on + 1 THEN user_stats.current_streak + 1
+                ELSE 1
+            END
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A change to one user's figures for one game
+     *
+     * @param playedAt when it happened; null for pure time updates
+     */
+    public record StatDelta(Long userId, Long gameId, int plays, long seconds, LocalDateTime playedAt) {
+    }
+
+    public record UserStatsRow(long totalPlays, long totalSeconds, LocalDate firstPlayedOn, LocalDate lastPlayedOn,
+            int currentStreak, int longestStreak) {
+    }
+
+    public record BucketRow(String dimension, String bucket, long plays, long seconds) {
+    }
+
+    public record GameStatsRow(Long gameId, long plays, long seconds, LocalDateTime lastPlayedAt) {
+    }
+
+    /**
+     * Apply deltas in three batched upserts. Totals are merged per user and
+     * day first, oldest day first, so streaks advance in order.
+     */
+    public void applyDeltas(List<StatDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        record DayKey(Long userId, LocalDate day) {
+        }
+        Map<DayKey, long[]> perDay = new LinkedHashMap<>();
+        deltas.stream()
+                .sorted(Comparator.comparing(StatDelta::playedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .forEach(d -> {
+                    long[] totals = perDay.computeIfAbsent(
+                            new DayKey(d.userId(), d.playedAt() != null ? d.playedAt().toLocalDate() : null),
+                            k -> new long[2]);
+                    totals[0] += d.plays();
+                    totals[1] += d.seconds();
+                });
+
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO user_stats (user_id, total_plays, total_seconds, first_played_on, last_played_on,
+                                        current_streak, longest_streak)
+                VALUES (?, ?, ?, CAST(? AS DATE), CAST(? AS DATE),
+                        CASE WHEN CAST(? AS DATE) IS NULL THEN 0 ELSE 1 END,
+                        CASE WHEN CAST(? AS DATE) IS NULL THEN 0 ELSE 1 END)
+                ON CONFLICT (user_id) DO UPDATE SET
+                    total_plays = user_stats.total_plays + EXCLUDED.total_plays,
+                    total_seconds = user_stats.total_seconds + EXCLUDED.total_seconds,
+                    first_played_on = LEAST(user_stats.first_played_on, EXCLUDED.first_played_on),
+                    last_played_on = GREATEST(user_stats.last_played_on, EXCLUDED.last_played_on),
+                    current_streak = %1$s,
+                    longest_streak = GREATEST(user_stats.longest_streak, %1$s),
+                    updated_at = CURRENT_TIMESTAMP
+                """.formatted(NEW_STREAK), perDay.entrySet().stream()
+                .map(e -> {
+                    Date day = e.getKey().day() != null ? Date.valueOf(e.getKey().day()) : null;
+                    return new Object[] { e.getKey().userId(), e.getValue()[0], e.getValue()[1], day, day, day, day };
+                })
+                .toList());
+
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO user_game_stats (user_id, game_id, plays, seconds, last_played_at)
+                VALUES (?, ?, ?, ?, CAST(? AS TIMESTAMP))
+                ON CONFLICT (user_id, game_id) DO UPDATE SET
+                    plays = user_game_stats.plays + EXCLUDED.plays,
+                    seconds = user_game_stats.seconds + EXCLUDED.seconds,
+                    last_played_at = GREATEST(user_game_stats.last_played_at, EXCLUDED.last_played_at)
+                """, deltas.stream()
+                .map(d -> new Object[] { d.userId(), d.gameId(), d.plays(), d.seconds(),
+                        d.playedAt() != null ? Timestamp.valueOf(d.playedAt()) : null })
+                .toList());
+
+        List<Object[]> bucketRows = deltas.stream()
+                .filter(d -> d.plays() != 0 || d.seconds() != 0)
+                .map(d -> new Object[] { d.userId(), d.plays(), d.seconds(), d.gameId() })
+                .toList();
+        if (!bucketRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO user_stat_buckets (user_id, dimension, bucket, plays, seconds)
+                    SELECT ?, d.dimension, d.bucket, ?, ?
+                    FROM games g LEFT JOIN categories c ON c.id = g.category_id
+                    %s
+                    WHERE g.id = ?
+                    ON CONFLICT (user_id, dimension, bucket) DO UPDATE SET
+                        plays = user_stat_buckets.plays + EXCLUDED.plays,
+                        seconds = user_stat_buckets.seconds + EXCLUDED.seconds
+                    """.formatted(DIMENSIONS), bucketRows);
+        }
+    }
+
+    public Optional<UserStatsRow> findStats(Long userId) {
+        return jdbcTemplate.query("""
+                SELECT total_plays, total_seconds, first_played_on, last_played_on, current_streak, longest_streak
+                FROM user_stats WHERE user_id = ?
+                """, (rs, i) -> new UserStatsRow(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getDate(3) != null ? rs.getDate(3).toLocalDate() : null,
+                rs.getDate(4) != null ? rs.getDate(4).toLocalDate() : null,
+                rs.getInt(5),
+                rs.getInt(6)), userId).stream().findFirst();
+    }
+
+    public List<BucketRow> findBuckets(Long userId) {
+        return jdbcTemplate.query("""
+                SELECT dimension, bucket, plays, seconds FROM user_stat_buckets
+                WHERE user_id = ? ORDER BY dimension, seconds DESC, plays DESC
+                """, (rs, i) -> new BucketRow(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4)),
+                userId);
+    }
+
+    public List<GameStatsRow> findMostPlayed(Long userId, int limit) {
+        return jdbcTemplate.query("""
+                SELECT game_id, plays, seconds, last_played_at FROM user_game_stats
+                WHERE user_id = ? ORDER BY seconds DESC, plays DESC LIMIT ?
+                """, (rs, i) -> new GameStatsRow(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getLong(3),
+                rs.getTimestamp(4) != null ? rs.getTimestamp(4).toLocalDateTime() : null), userId, limit);
+    }
+
+    public long maxUserId() {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+        return max != null ? max : 0;
+    }
+
+    /**
+     * Recompute all rollups of users with {@code fromId <= id < toId} from
+     * source data. Plays are sessions; days played come from sessions and
+     * play history. Runs in the caller's transaction.
+     *
+     * Days that play_history has trimmed cannot be recovered, so the stored
+     * first day, longest streak and a current streak ending on the same day
+     * are kept where they reach further than the recomputed ones.
+     */
+    public void rebuildRange(long fromId, long toId) {
+        jdbcTemplate.update("DELETE FROM user_stat_buckets WHERE user_id >= ? AND user_id < ?", fromId, toId);
+        jdbcTemplate.update("DELETE FROM user_game_stats WHERE user_id >= ? AND user_id < ?", fromId, toId);
+
+        jdbcTemplate.update("""
+                INSERT INTO user_game_stats (user_id, game_id, plays, seconds, last_played_at)
+                SELECT user_id, game_id, SUM(plays), SUM(seconds), MAX(last_at)
+                FROM (
+                    SELECT user_id, game_id, 0 AS plays, 0 AS seconds, played_at AS last_at
+                    FROM play_history WHERE user_id >= ? AND user_id < ?
+                    UNION ALL
+                    SELECT user_id, game_id, 1, duration_seconds, ended_at
+                    FROM play_sessions WHERE user_id >= ? AND user_id < ?
+                ) source
+                GROUP BY user_id, game_id
+                """, fromId, toId, fromId, toId);
+
+        jdbcTemplate.update("""
+                INSERT INTO user_stat_buckets (user_id, dimension, bucket, plays, seconds)
+                SELECT s.user_id, d.dimension, d.bucket, SUM(s.plays), SUM(s.seconds)
+                FROM user_game_stats s
+                JOIN games g ON g.id = s.game_id
+                LEFT JOIN categories c ON c.id = g.category_id
+                %s
+                WHERE s.user_id >= ? AND s.user_id < ? AND (s.plays > 0 OR s.seconds > 0)
+                GROUP BY s.user_id, d.dimension, d.bucket
+                """.formatted(DIMENSIONS), fromId, toId);
+
+        // Streaks: consecutive days form islands where day - row_number is constant
+        jdbcTemplate.update("""
+                WITH days AS (
+                    SELECT user_id, started_at::date AS day FROM play_sessions WHERE user_id >= ? AND user_id < ?
+                    UNION
+                    SELECT user_id, played_at::date FROM play_history
+                    WHERE user_id >= ? AND user_id < ? AND played_at IS NOT NULL
+                ), runs AS (
+                    SELECT user_id, MIN(day) AS start_day, MAX(day) AS end_day, COUNT(*) AS length
+                    FROM (SELECT user_id, day,
+                                 day - (ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY day))::int AS island
+                          FROM days) numbered
+                    GROUP BY user_id, island
+                ), totals AS (
+                    SELECT user_id, SUM(plays) AS plays, SUM(seconds) AS seconds
+                    FROM user_game_stats WHERE user_id >= ? AND user_id < ? GROUP BY user_id
+                )
+                INSERT INTO user_stats (user_id, total_plays, total_seconds, first_played_on, last_played_on,
+                                        current_streak, longest_streak)
+                SELECT r.user_id, COALESCE(MAX(t.plays), 0), COALESCE(MAX(t.seconds), 0),
+                       MIN(r.start_day), MAX(r.end_day),
+                       (ARRAY_AGG(r.length ORDER BY r.end_day DESC))[1], MAX(r.length)
+                FROM runs r LEFT JOIN totals t ON t.user_id = r.user_id
+                GROUP BY r.user_id
+                ON CONFLICT (user_id) DO UPDATE SET
+                    total_plays = EXCLUDED.total_plays,
+                    total_seconds = EXCLUDED.total_seconds,
+                    first_played_on = LEAST(user_stats.first_played_on, EXCLUDED.first_played_on),
+                    last_played_on = EXCLUDED.last_played_on,
+                    current_streak = CASE
+                        WHEN user_stats.last_played_on = EXCLUDED.last_played_on
+                            THEN GREATEST(user_stats.current_streak, EXCLUDED.current_streak)
+                        ELSE EXCLUDED.current_streak
+                    END,
+                    longest_streak = GREATEST(user_stats.longest_streak, EXCLUDED.longest_streak),
+                    updated_at = CURRENT_TIMESTAMP
+                """, fromId, toId, fromId, toId, fromId, toId);
+
+        // Users left without any source rows have nothing to keep
+        jdbcTemplate.update("""
+                DELETE FROM user_stats s WHERE s.user_id >= ? AND s.user_id < ?
+                AND NOT EXISTS (SELECT 1 FROM play_sessions p WHERE p.user_id = s.user_id)
+                AND NOT EXISTS (SELECT 1 FROM play_history h WHERE h.user_id = s.user_id AND h.played_at IS NOT NULL)
+                """, fromId, toId);
+    }
+}
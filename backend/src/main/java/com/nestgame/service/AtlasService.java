@@ -0,0 +1,199 @@
+package com.nestgame.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nestgame.dto.AtlasDTO;
+import com.nestgame.dto.GameDTO;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.exception.ServiceUnavailableException;
+import com.nestgame.service.ImageService.ThumbnailSize;
+import com.nestgame.util.DiskCache;
+import com.nestgame.util.ImageCodec;
+import com.nestgame.util.SingleFlight;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds sprite atlases that pack the box-art thumbnails of a page of games
+ * into a single image.
+ *
+ * Atlases are keyed by the query and the catalog version, so a repeated page
+ * is served from cache and a catalog change makes the next request rebuild it.
+ * Thumbnails are generated on the image pool in parallel. An atlas missing a
+ * tile that may still come (a timeout or a failed fetch) is served once under
+ * a key of its own and not cached, so the next request tries again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AtlasService {
+
+    private static final int MAX_ATLAS_WIDTH = 1024;
+    private static final int PADDING = 2;
+
+    private final GameService gameService;
+    private final ImageService imageService;
+    private final GameCatalog gameCatalog;
+
+    @Value("${app.images.cache-dir}")
+    private String cacheDir;
+
+    @Value("${app.images.atlas-cache-size:256MB}")
+    private DataSize atlasCacheSize;
+
+    @Value("${app.images.base-url:/api/images}")
+    private String baseUrl;
+
+    @Value("${app.images.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    private final Cache<String, AtlasDTO> atlases = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .build();
+
+    private final SingleFlight<String, AtlasDTO> builds = new SingleFlight<>();
+
+    private DiskCache images;
+
+    @PostConstruct
+    public void init() throws IOException {
+        images = new DiskCache(Path.of(cacheDir, "atlas"), atlasCacheSize.toBytes());
+    }
+
+    /**
+     * Atlas of the page {@code GET /games} returns for the same query
+     */
+    public AtlasDTO getAtlas(String search, String category, String region, int page, int size,
+            GameIndex.SortKey sortKey, boolean descending) {
+        String key = DiskCache.sha256(String.join("|",
+                String.valueOf(gameCatalog.version()),
+                String.valueOf(search), String.valueOf(category), String.valueOf(region),
+                String.valueOf(page), String.valueOf(size),
+                sortKey.name(), descending ? "desc" : "asc")).substring(0, 32);
+
+        AtlasDTO cached = atlases.getIfPresent(key);
+        if (cached != null && images.get(key).isPresent()) {
+            return cached;
+        }
+
+        return builds.execute(key, () -> {
+            AtlasDTO atlas = build(key, gameService.getGames(search, category, region, page, size,
+                    sortKey, descending));
+            if (atlas.complete()) {
+                atlases.put(key, atlas);
+            }
+            return atlas;
+        });
+    }
+
+    public Path getAtlasImage(String key) {
+        return images.get(key)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy atlas: " + key));
+    }
+
+    private AtlasDTO build(String key, List<GameDTO> games) {
+        List<Long> ids = new ArrayList<>();
+        List<BufferedImage> thumbnails = new ArrayList<>();
+        boolean complete = loadThumbnails(games, ids, thumbnails);
+        // The image URL is cached by clients for long, so a partial atlas must not share it with the full one
+        String imageKey = complete ? key : DiskCache.sha256(key + ":partial:" + System.nanoTime()).substring(0, 32);
+
+        // Shelf packing: fill rows left to right, start a new row when the width runs out
+        Map<Long, AtlasDTO.Tile> tiles = new LinkedHashMap<>();
+        int x = 0, y = 0, rowHeight = 0, width = 1;
+        for (int i = 0; i < thumbnails.size(); i++) {
+            BufferedImage image = thumbnails.get(i);
+            if (x > 0 && x + image.getWidth() > MAX_ATLAS_WIDTH) {
+                x = 0;
+                y += rowHeight + PADDING;
+                rowHeight = 0;
+            }
+            tiles.put(ids.get(i), new AtlasDTO.Tile(x, y, image.getWidth(), image.getHeight()));
+            x += image.getWidth() + PADDING;
+            width = Math.max(width, x - PADDING);
+            rowHeight = Math.max(rowHeight, image.getHeight());
+        }
+        int height = Math.max(1, y + rowHeight);
+
+        BufferedImage atlas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = atlas.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            for (int i = 0; i < thumbnails.size(); i++) {
+                AtlasDTO.Tile tile = tiles.get(ids.get(i));
+                g.drawImage(thumbnails.get(i), tile.x(), tile.y(), null);
+            }
+        } finally {
+            g.dispose();
+        }
+
+        try {
+            images.put(imageKey, out -> ImageCodec.write(atlas, out));
+        } catch (IOException e) {
+            throw new RuntimeException("Không thể tạo atlas", e);
+        }
+        log.debug("Built atlas {} with {} tiles ({}x{})", imageKey, tiles.size(), width, height);
+        return new AtlasDTO(baseUrl + "/atlas/" + imageKey, width, height, tiles, complete);
+    }
+
+    /**
+     * Generate the thumbnails of all games at once and collect them in order
+     *
+     * @return false if a thumbnail is missing for a reason that may pass
+     */
+    private boolean loadThumbnails(List<GameDTO> games, List<Long> ids, List<BufferedImage> thumbnails) {
+        Map<Long, CompletableFuture<Path>> pending = new LinkedHashMap<>();
+        for (GameDTO game : games) {
+            if (game.imageUrl() != null) {
+                pending.put(game.id(), imageService.getThumbnailAsync(game.imageUrl(), ThumbnailSize.SMALL));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        boolean complete = true;
+        for (Map.Entry<Long, CompletableFuture<Path>> entry : pending.entrySet()) {
+            try {
+                Path file = entry.getValue().get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                BufferedImage image = ImageIO.read(file.toFile());
+                if (image != null) {
+                    ids.add(entry.getKey());
+                    thumbnails.add(image);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Xử lý ảnh bị gián đoạn");
+            } catch (ExecutionException e) {
+                // A box art that does not exist stays missing; anything else is worth another try
+                Throwable cause = e.getCause() instanceof UncheckedIOException io ? io.getCause() : e.getCause();
+                complete &= cause instanceof FileNotFoundException;
+                log.debug("Skipping game {} in atlas: {}", entry.getKey(), cause.getMessage());
+            } catch (TimeoutException | IOException e) {
+                complete = false;
+                log.debug("Skipping game {} in atlas: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        return complete;
+    }
+}
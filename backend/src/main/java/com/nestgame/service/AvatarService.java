@@ -0,0 +1,227 @@
+package com.nestgame.service;
+
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.exception.ServiceUnavailableException;
+import com.nestgame.util.ImageCodec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous avatar upload pipeline.
+ *
+ * The multipart body is streamed to a temp file, decoded and cropped to
+ * 200x200 on the image pool, and the small result is pushed to the
+ * {@link AvatarStorage} backend by a separate upload worker. The request
+ * thread only validates and spools the upload, so neither heap use nor
+ * latency depends on the original image size or the storage provider.
+ *
+ * Every upload or delete takes a new job number. A job only writes its
+ * status and avatar while it is still the user's latest, so a slow older
+ * upload cannot overwrite a newer one. The storage call itself runs
+ * outside the per-user lock.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvatarService {
+
+    public static final int AVATAR_SIZE = 200;
+    private static final long MAX_UPLOAD_BYTES = 2 * 1024 * 1024;
+    private static final int LOCK_STRIPES = 64;
+
+    public enum Status {
+        PENDING, READY, FAILED
+    }
+
+    public record UploadStatus(Status status, String avatarUrl, String message) {
+    }
+
+    /** Latest job of a user; status is null after a delete. */
+    private record Job(long seq, UploadStatus status) {
+    }
+
+    private final AvatarStorage avatarStorage;
+    private final UserService userService;
+    private final ExecutorService imageExecutor;
+    private final ExecutorService avatarUploadExecutor;
+
+    /** Statuses are only polled shortly after an upload, so old ones can go. */
+    private final Cache<Long, Job> jobs = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+    private final AtomicLong jobSeq = new AtomicLong();
+    private final Object[] locks = newLocks();
+
+    /**
+     * Accept an avatar upload and start processing it in the background
+     */
+    public UploadStatus submit(MultipartFile file, Long userId) throws IOException {
+        if (file.isEmpty()) {
+            throw new BadRequestException("File cannot be empty");
+        }
+
+        // Validate file type
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new BadRequestException("File must be an image");
+        }
+
+        // Validate file size (max 2MB)
+        if (file.getSize() > MAX_UPLOAD_BYTES) {
+            throw new BadRequestException("File size must be less than 2MB");
+        }
+
+        Path upload = Files.createTempFile("avatar-upload-" + userId + "-", ".tmp");
+        long seq = 0;
+        try {
+            file.transferTo(upload);
+            UploadStatus pending = new UploadStatus(Status.PENDING, null, null);
+            // Numbered and published together, so a newer job is never replaced by an older one
+            synchronized (lockFor(userId)) {
+                seq = jobSeq.incrementAndGet();
+                jobs.put(userId, new Job(seq, pending));
+            }
+            long job = seq;
+            imageExecutor.execute(() -> process(upload, userId, job));
+            return pending;
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(upload);
+            synchronized (lockFor(userId)) {
+                if (isLatest(userId, seq)) {
+                    jobs.invalidate(userId);
+                }
+            }
+            throw new ServiceUnavailableException("Hệ thống xử lý ảnh đang quá tải, vui lòng thử lại sau");
+        } catch (IOException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+    }
+
+    /**
+     * Latest upload status for a user, or null if nothing was uploaded in the last hour
+     */
+    public UploadStatus getStatus(Long userId) {
+        Job job = jobs.getIfPresent(userId);
+        return job != null ? job.status() : null;
+    }
+
+    public void delete(Long userId) {
+        String previous;
+        synchronized (lockFor(userId)) {
+            // Supersede uploads still in flight
+            jobs.put(userId, new Job(jobSeq.incrementAndGet(), null));
+            previous = userService.updateAvatarUrl(userId, null);
+        }
+        avatarStorage.delete(previous);
+    }
+
+    private void process(Path upload, Long userId, long seq) {
+        Path processed = null;
+        try {
+            BufferedImage avatar = ImageCodec.cropSquare(ImageCodec.read(upload, AVATAR_SIZE), AVATAR_SIZE);
+            processed = Files.createTempFile("avatar-" + userId + "-", ".img");
+            try (OutputStream out = Files.newOutputStream(processed)) {
+                ImageCodec.write(avatar, out);
+            }
+
+            Path result = processed;
+            avatarUploadExecutor.execute(() -> upload(result, userId, seq));
+            processed = null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to process avatar for user {}: {}", userId, e.getMessage());
+            finish(userId, seq, new UploadStatus(Status.FAILED, null, "Không thể xử lý ảnh đại diện"));
+        } finally {
+            deleteQuietly(upload);
+            if (processed != null) {
+                deleteQuietly(processed);
+            }
+        }
+    }
+
+    /**
+     * Stores the avatar without holding the user's lock; each upload gets its
+     * own name, so only the swap of the user's avatar URL is serialized. The
+     * avatar that loses, the replaced one or a superseded job's, is deleted.
+     */
+    private void upload(Path processed, Long userId, long seq) {
+        String avatarUrl = null;
+        try {
+            if (!isLatest(userId, seq)) {
+                return;
+            }
+            avatarUrl = avatarStorage.store(processed, userId);
+
+            String unused = avatarUrl;
+            synchronized (lockFor(userId)) {
+                if (isLatest(userId, seq)) {
+                    unused = userService.updateAvatarUrl(userId, avatarUrl);
+                    jobs.put(userId, new Job(seq, new UploadStatus(Status.READY, avatarUrl, null)));
+                }
+            }
+            avatarUrl = null;
+            if (unused != null) {
+                avatarStorage.delete(unused);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to upload avatar for user {}: {}", userId, e.getMessage());
+            if (avatarUrl != null) {
+                avatarStorage.delete(avatarUrl);
+            }
+            finish(userId, seq, new UploadStatus(Status.FAILED, null, "Failed to upload avatar"));
+        } finally {
+            deleteQuietly(processed);
+        }
+    }
+
+    private void finish(Long userId, long seq, UploadStatus status) {
+        synchronized (lockFor(userId)) {
+            if (isLatest(userId, seq)) {
+                jobs.put(userId, new Job(seq, status));
+            }
+        }
+    }
+
+    /**
+     * A job whose entry expired was not superseded: a newer job would have replaced it
+     */
+    private boolean isLatest(Long userId, long seq) {
+        Job job = jobs.getIfPresent(userId);
+        return job == null || job.seq() == seq;
+    }
+
+    private Object lockFor(Long userId) {
+        return locks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static Object[] newLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.nestgame.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Destination for processed avatar images.
+ *
+ * The backend is selected with {@code app.avatars.storage}
+ * ({@code cloudinary} or {@code local}).
+ */
+public interface AvatarStorage {
+
+    /**
+     * Store an already cropped and encoded avatar. Every call stores under a
+     * new name, so a stored avatar is never overwritten by a later upload.
+     *
+     * @return the public URL of the stored avatar
+     */
+    String store(Path image, Long userId) throws IOException;
+
+    /**
+     * Delete an avatar returned by {@link #store}. URLs this backend did not
+     * produce are ignored.
+     */
+    void delete(String avatarUrl);
+}
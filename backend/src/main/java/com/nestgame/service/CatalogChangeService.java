@@ -0,0 +1,185 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.CatalogChangesDTO;
+import com.nestgame.dto.GameDTO;
+import com.nestgame.event.CatalogChangedEvent;
+import com.nestgame.event.GameChangedEvent;
+import com.nestgame.exception.ServiceUnavailableException;
+import com.nestgame.repository.CatalogChangeRepository;
+import com.nestgame.repository.CatalogChangeRepository.ChangeRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog change feed.
+ *
+ * Every game change is appended to catalog_changes in the transaction that
+ * made it. Each node tails the log, right after its own commits and on a
+ * timer for everyone else's, and republishes new entries as
+ * {@link CatalogChangedEvent}s, so in-process caches follow edits made on
+ * any node. Clients read the same log through {@link #getChanges}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogChangeService {
+
+    private static final int POLL_BATCH_SIZE = 1000;
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final GameCatalog gameCatalog;
+    private final GameService gameService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.catalog.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${app.catalog.max-changes:500}")
+    private int maxChanges;
+
+    /** Last seq published on this node; -1 until startup has read the log. */
+    private volatile long lastSeen = -1;
+
+    /**
+     * Log the change; joins the transaction that changed the game
+     */
+    @EventListener
+    public void record(GameChangedEvent event) {
+        catalogChangeRepository.append(event.gameId(), event.deleted());
+    }
+
+    /**
+     * Runs before the listeners that load catalog-derived state, such as
+     * {@link GameIndex#load}: they then read everything up to
+     * {@code lastSeen}, and later changes reach them through the feed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void init() {
+        // Caches start empty, so history before startup is of no interest
+        lastSeen = catalogChangeRepository.findBounds()[1];
+        gameCatalog.start(lastSeen);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommitted(GameChangedEvent event) {
+        try {
+            poll();
+        } catch (DataAccessException e) {
+            log.warn("Could not read catalog changes after commit, the next poll picks them up: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Publish log entries this node has not seen yet
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.poll-interval:5000}")
+    public synchronized void poll() {
+        if (lastSeen < 0) {
+            return;
+        }
+        List<ChangeRow> rows;
+        do {
+            rows = catalogChangeRepository.findChanges(lastSeen, Long.MAX_VALUE, POLL_BATCH_SIZE);
+            if (rows.isEmpty()) {
+                return;
+            }
+            Map<Long, Boolean> latest = collapse(rows);
+            long seq = rows.get(rows.size() - 1).seq();
+            eventPublisher.publishEvent(new CatalogChangedEvent(seq, ids(latest, false), ids(latest, true)));
+            lastSeen = seq;
+        } while (rows.size() == POLL_BATCH_SIZE);
+    }
+
+    /**
+     * Changes after {@code since}; omit it to get the current seq along with a full resync
+     *
+     * @param fields sparse fieldset for the upserted games, see {@link GameFields}
+     */
+    public CatalogChangesDTO getChanges(long since, String fields) {
+        // Games are read from the catalog cache, so only serve entries it has already applied
+        poll();
+        long seen = lastSeen;
+        if (seen < 0) {
+            throw new ServiceUnavailableException("Danh mục game đang được tải, vui lòng thử lại sau");
+        }
+        long oldest = catalogChangeRepository.findBounds()[0];
+        // Nothing to apply changes to, behind the truncated part of the log, or ahead of it after a reset
+        if (since <= 0 || since < oldest - 1 || since > seen) {
+            return CatalogChangesDTO.fullResync(seen);
+        }
+
+        List<ChangeRow> rows = catalogChangeRepository.findChanges(since, seen, maxChanges + 1);
+        boolean more = rows.size() > maxChanges;
+        if (more) {
+            rows = rows.subList(0, maxChanges);
+        }
+        if (rows.isEmpty()) {
+            return new CatalogChangesDTO(since, false, false, List.of(), List.of());
+        }
+
+        Map<Long, Boolean> latestState = collapse(rows);
+        List<Long> upsertedIds = ids(latestState, false);
+        List<Long> deleted = ids(latestState, true);
+
+        Map<Long, GameDTO> games = gameCatalog.getAll(upsertedIds);
+        List<GameDTO> upserted = new ArrayList<>(games.size());
+        for (Long id : upsertedIds) {
+            GameDTO game = games.get(id);
+            if (game != null) {
+                upserted.add(game);
+            } else {
+                deleted.add(id); // deleted by a change past this page
+            }
+        }
+        return new CatalogChangesDTO(rows.get(rows.size() - 1).seq(), false, more,
+                gameService.select(upserted, fields), deleted);
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.compact-interval:3600000}")
+    public void compact() {
+        int expired = catalogChangeRepository.truncateBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (expired > 0) {
+            log.info("Truncated catalog change log: {} expired", expired);
+        }
+    }
+
+    /**
+     * Latest state per game, ordered by its latest change
+     */
+    private static Map<Long, Boolean> collapse(List<ChangeRow> rows) {
+        Map<Long, Boolean> latest = new LinkedHashMap<>();
+        for (ChangeRow row : rows) {
+            latest.remove(row.gameId());
+            latest.put(row.gameId(), row.deleted());
+        }
+        return latest;
+    }
+
+    private static List<Long> ids(Map<Long, Boolean> games, boolean deleted) {
+        List<Long> result = new ArrayList<>();
+        games.forEach((gameId, isDeleted) -> {
+            if (isDeleted == deleted) {
+                result.add(gameId);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,173 @@
+package com.nestgame.service;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nestgame.dto.GameDTO;
+import com.nestgame.event.CatalogChangedEvent;
+import com.nestgame.exception.ServiceUnavailableException;
+import com.nestgame.repository.GameRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The whole catalog as one pre-serialized JSON document.
+ *
+ * The snapshot is built once per catalog version on a background thread and
+ * kept plain, gzipped and, where the native Brotli library loads, Brotli
+ * compressed, so serving it is a byte copy. Changes that
+ * arrive while a build runs are coalesced into one more build; until it
+ * finishes the previous snapshot is served under its own version. A failed
+ * build is retried after a delay, sooner if a request asks for the snapshot
+ * once the delay has passed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSnapshotService {
+
+    /**
+     * Quality 9 is about a fifth smaller than gzip at its best and encodes a
+     * 20k game catalog in half a second; 10 and 11 take several seconds to
+     * half a minute, which every catalog change would wait for
+     */
+    private static final Encoder.Parameters BROTLI = new Encoder.Parameters()
+            .setQuality(9)
+            .setMode(Encoder.Mode.TEXT);
+
+    private final GameRepository gameRepository;
+    private final GameMapper gameMapper;
+    private final GameCatalog gameCatalog;
+    private final ObjectMapper objectMapper;
+
+    private final ScheduledExecutorService builder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile Snapshot current;
+    private volatile long retryAfter; // epoch millis; requests start no build before this after a failure
+
+    @Value("${app.catalog.snapshot-retry-delay:10000}")
+    private long retryDelay;
+
+    /**
+     * @param version      catalog version the snapshot was built at
+     * @param lastModified catalog change time at that version, epoch millis
+     * @param brotli       null when Brotli is not available on this platform
+     */
+    public record Snapshot(long version, long lastModified, byte[] json, byte[] gzip, byte[] brotli) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (!Brotli4jLoader.isAvailable()) {
+            log.warn("Brotli is not available, the catalog snapshot is served plain or gzipped: {}",
+                    String.valueOf(Brotli4jLoader.getUnavailabilityCause()));
+        }
+        schedule();
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        schedule();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * The latest built snapshot; may trail the catalog by one build
+     */
+    public Snapshot getSnapshot() {
+        Snapshot snapshot = current;
+        if ((snapshot == null || snapshot.version() != gameCatalog.version())
+                && System.currentTimeMillis() >= retryAfter) {
+            schedule();
+        }
+        if (snapshot == null) {
+            throw new ServiceUnavailableException("Danh mục game đang được tạo, vui lòng thử lại sau");
+        }
+        return snapshot;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            builder.execute(() -> {
+                scheduled.set(false);
+                build();
+            });
+        }
+    }
+
+    private void build() {
+        // Read the version first: a change committed during the build leaves it behind and triggers another
+        long version = gameCatalog.version();
+        long lastModified = gameCatalog.lastModified();
+        Snapshot built = current;
+        if (built != null && built.version() == version) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            List<GameDTO> games = gameRepository.findAll(Sort.by("id")).stream()
+                    .map(gameMapper::toDTO)
+                    .toList();
+            byte[] json = objectMapper.writeValueAsBytes(games);
+            byte[] brotli = Brotli4jLoader.isAvailable() ? Encoder.compress(json, BROTLI) : null;
+            current = new Snapshot(version, lastModified, json, gzip(json), brotli);
+            log.info("Built catalog snapshot v{} with {} games ({} bytes, {} gzipped, {} brotli) in {} ms",
+                    version, games.size(), json.length, current.gzip().length,
+                    brotli != null ? brotli.length : "no", System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to build catalog snapshot, retrying in {} ms: {}", retryDelay, e.getMessage(), e);
+            retryAfter = System.currentTimeMillis() + retryDelay;
+            try {
+                builder.schedule(this::schedule, retryDelay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shutdown) {
+                // Shutting down
+            }
+            return;
+        }
+
+        if (gameCatalog.version() != version) {
+            schedule();
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,23 +1,27 @@
 package com.nestgame.service;
 
 import com.cloudinary.Cloudinary;
-import com.cloudinary.Transformation;
 import com.cloudinary.utils.ObjectUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Service for uploading and managing images on Cloudinary
  */
 @Service
+@ConditionalOnProperty(name = "app.avatars.storage", havingValue = "cloudinary", matchIfMissing = true)
 @Slf4j
-public class CloudinaryService {
+public class CloudinaryService implements AvatarStorage {
+
+    private static final String FOLDER = "nestgame/avatars/";
 
     @Value("${cloudinary.cloud-name}")
     private String cloudName;
@@ -43,35 +47,15 @@ public class CloudinaryService {
     /**
      * Upload an avatar image to Cloudinary
      * 
-     * @param file   The image file to upload
+     * @param image  The processed 200x200 image, streamed from disk
      * @param userId The user ID (used for naming the file)
      * @return The URL of the uploaded image
      */
+    @Override
     @SuppressWarnings("unchecked")
-    public String uploadAvatar(MultipartFile file, Long userId) throws IOException {
-        if (file.isEmpty()) {
-            throw new IllegalArgumentException("File cannot be empty");
-        }
-
-        // Validate file type
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            throw new IllegalArgumentException("File must be an image");
-        }
-
-        // Validate file size (max 2MB)
-        if (file.getSize() > 2 * 1024 * 1024) {
-            throw new IllegalArgumentException("File size must be less than 2MB");
-        }
-
-        Map<String, Object> uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap(
-                "public_id", "nestgame/avatars/user_" + userId,
-                "overwrite", true,
-                "transformation", new Transformation()
-                        .width(200)
-                        .height(200)
-                        .crop("fill")
-                        .gravity("face")));
+    public String store(Path image, Long userId) throws IOException {
+        Map<String, Object> uploadResult = cloudinary.uploader().upload(image.toFile(), ObjectUtils.asMap(
+                "public_id", FOLDER + "user_" + userId + "_" + UUID.randomUUID().toString().replace("-", "")));
 
         String url = (String) uploadResult.get("secure_url");
         log.info("Avatar uploaded for user {}: {}", userId, url);
@@ -81,14 +65,25 @@ public class CloudinaryService {
     /**
      * Delete an avatar from Cloudinary
      * 
-     * @param userId The user ID
+     * @param avatarUrl The delivery URL returned by {@link #store}
      */
-    public void deleteAvatar(Long userId) {
+    @Override
+    public void delete(String avatarUrl) {
+        // .../image/upload/v<version>/nestgame/avatars/user_<id>_<token>.<ext>
+        int folder = avatarUrl != null ? avatarUrl.indexOf("/" + FOLDER) : -1;
+        if (folder < 0) {
+            return;
+        }
+        String publicId = avatarUrl.substring(folder + 1);
+        int extension = publicId.lastIndexOf('.');
+        if (extension > FOLDER.length()) {
+            publicId = publicId.substring(0, extension);
+        }
         try {
-            cloudinary.uploader().destroy("nestgame/avatars/user_" + userId, ObjectUtils.emptyMap());
-            log.info("Avatar deleted for user {}", userId);
+            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+            log.info("Avatar deleted: {}", publicId);
         } catch (IOException e) {
-            log.error("Failed to delete avatar for user {}: {}", userId, e.getMessage());
+            log.error("Failed to delete avatar {}: {}", publicId, e.getMessage());
         }
     }
 }
@@ -0,0 +1,139 @@
+package com.nestgame.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nestgame.dto.GameDTO;
+import com.nestgame.event.CatalogChangedEvent;
+import com.nestgame.repository.GameRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the version of the game catalog.
+ *
+ * The version changes with every batch of the catalog change feed, which
+ * covers changes committed on any node, so anything derived from the catalog
+ * can be cached under a key that includes it. Mapped games are cached by id
+ * and evicted by the same batches. Play counts and ratings are updated
+ * outside the entity; {@link GameIndex} rereads them on a timer and reports
+ * the games it found changed through {@link #onAggregatesChanged}.
+ *
+ * The version is derived from the feed's seq and a fingerprint of all play
+ * counts and ratings, not from local state, so every node that has read the
+ * same data reports the same version, also after a restart, and ETags built
+ * from it stay valid behind a load balancer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GameCatalog {
+
+    private final GameRepository gameRepository;
+    private final GameMapper gameMapper;
+
+    /** Last catalog_changes seq applied; guarded by this. */
+    private long seq;
+    /** Fingerprint of all play counts and ratings; guarded by this. */
+    private long aggregates;
+    private volatile long version;
+    private final AtomicLong lastModified = new AtomicLong(System.currentTimeMillis());
+
+    private final Cache<Long, GameDTO> games = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Time of the last committed change, in epoch millis; startup time if none
+     */
+    public long lastModified() {
+        return lastModified.get();
+    }
+
+    public Optional<GameDTO> get(Long id) {
+        return Optional.ofNullable(getAll(List.of(id)).get(id));
+    }
+
+    /**
+     * Games by id; ids that do not exist are absent from the result.
+     * Cache misses are loaded with a single IN query.
+     */
+    public Map<Long, GameDTO> getAll(Collection<Long> ids) {
+        return games.getAll(ids, this::load);
+    }
+
+    /**
+     * The change feed starts at {@code seq}; called once the log has been read at startup
+     */
+    public synchronized void start(long seq) {
+        this.seq = seq;
+        updateVersion();
+    }
+
+    /**
+     * Runs before other listeners, which derive data from the new version
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        games.invalidateAll(event.upserted());
+        games.invalidateAll(event.deleted());
+        lastModified.set(System.currentTimeMillis());
+        long newVersion;
+        synchronized (this) {
+            seq = event.seq();
+            newVersion = updateVersion();
+        }
+        log.debug("Catalog changes through seq {} applied, catalog version is now {}", event.seq(), newVersion);
+    }
+
+    /**
+     * Play counts or ratings of {@code ids} changed outside the change feed
+     *
+     * @param fingerprint of the play counts and ratings of all games, as
+     *                    read by this refresh
+     */
+    public void onAggregatesChanged(Collection<Long> ids, long fingerprint) {
+        games.invalidateAll(ids);
+        if (!ids.isEmpty()) {
+            lastModified.set(System.currentTimeMillis());
+        }
+        long newVersion;
+        synchronized (this) {
+            if (aggregates == fingerprint) {
+                return;
+            }
+            aggregates = fingerprint;
+            newVersion = updateVersion();
+        }
+        log.debug("Play counts or ratings of {} games refreshed, catalog version is now {}", ids.size(), newVersion);
+    }
+
+    private long updateVersion() {
+        version = seq * 0x9E3779B97F4A7C15L + aggregates;
+        return version;
+    }
+
+    private Map<Long, GameDTO> load(Set<? extends Long> ids) {
+        Map<Long, GameDTO> loaded = new HashMap<>();
+        gameRepository.findAllById(List.copyOf(ids)).forEach(game -> loaded.put(game.getId(), gameMapper.toDTO(game)));
+        return loaded;
+    }
+}
@@ -0,0 +1,96 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.GameDTO;
+import com.nestgame.exception.BadRequestException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.RecordComponent;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets for {@link GameDTO}: parses {@code fields=name,year},
+ * tells which {@code Game} attributes a selection needs, and projects DTOs
+ * down to the selected fields. {@code id} is always kept.
+ *
+ * Lists served from {@link GameIndex} project the cached DTOs. Until the
+ * index has loaded, {@link GameService} reads lists from the database and
+ * selects only the columns of {@link #attributes}.
+ */
+@Component
+public class GameFields {
+
+    /** Game attributes read by {@link GameMapper} for DTO fields not named like one. */
+    private static final Map<String, String> SOURCES = Map.of(
+            "category", "category",
+            "categoryId", "category",
+            "categoryName", "category",
+            "thumbnailUrl", "imageUrl",
+            "thumbnailSnap", "imageSnap",
+            "thumbnailTitle", "imageTitle");
+
+    private final Map<String, MethodHandle> accessors = new LinkedHashMap<>();
+
+    public GameFields() {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (RecordComponent component : GameDTO.class.getRecordComponents()) {
+            try {
+                accessors.put(component.getName(), lookup.unreflect(component.getAccessor()));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot access GameDTO." + component.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * @return the selected field names in DTO order, or null for all fields
+     */
+    public Set<String> parse(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return null;
+        }
+        Set<String> requested = StringUtils.commaDelimitedListToSet(fields.replace(" ", ""));
+        requested.remove("");
+        for (String field : requested) {
+            if (!accessors.containsKey(field)) {
+                throw new BadRequestException("Trường không hợp lệ: " + field);
+            }
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : accessors.keySet()) {
+            if (field.equals("id") || requested.contains(field)) {
+                selected.add(field);
+            }
+        }
+        return Collections.unmodifiableSet(selected);
+    }
+
+    /**
+     * Game attributes needed to map the selected fields
+     */
+    public Set<String> attributes(Set<String> fields) {
+        Set<String> attributes = new LinkedHashSet<>();
+        for (String field : fields) {
+            attributes.add(SOURCES.getOrDefault(field, field));
+        }
+        return attributes;
+    }
+
+    public Map<String, Object> project(GameDTO game, Set<String> fields) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String field : fields) {
+            try {
+                result.put(field, accessors.get(field).invoke(game));
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot read GameDTO." + field, e);
+            }
+        }
+        return result;
+    }
+}
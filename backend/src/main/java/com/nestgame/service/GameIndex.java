@@ -0,0 +1,444 @@
+package com.nestgame.service;
+
+import com.nestgame.entity.Game;
+import com.nestgame.event.CatalogChangedEvent;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.exception.ServiceUnavailableException;
+import com.nestgame.repository.GameRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * In-memory bitmap index of the catalog for filtering, facet counts and
+ * sorted pages.
+ *
+ * Every game gets a dense ordinal and every filter value (category, region,
+ * year, featured) a {@link BitSet} of ordinals. A filter ORs the selected
+ * values of a dimension and ANDs the dimensions. A facet count is a value's
+ * bitmap ANDed with the filters of the other dimensions, so while a category
+ * is selected the other categories still show what they would add.
+ *
+ * For every {@link SortKey} the index keeps the live ordinals in ascending
+ * order. A page walks that permutation, forwards or backwards, and keeps the
+ * ordinals that pass the filter, so no request sorts anything. Ascending
+ * puts nulls last and descending first, as PostgreSQL does.
+ *
+ * The index is loaded at startup and patched from the catalog change feed;
+ * a patch re-sorts only the changed games and merges them into each
+ * permutation. Patches are applied to a copy, so readers never see a
+ * half-updated index. Play counts and ratings are updated outside the
+ * entity and are refreshed on a timer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GameIndex {
+
+    public static final String UNKNOWN = "unknown";
+
+    private final GameRepository gameRepository;
+    private final GameCatalog gameCatalog;
+
+    private volatile Index index;
+
+    public enum Dimension {
+        CATEGORY, REGION, YEAR, FEATURED
+    }
+
+    public enum SortKey {
+        NAME("name", Entry::name),
+        YEAR("year", Entry::year),
+        RATING("rating", Entry::rating),
+        PLAY_COUNT("playCount", Entry::playCount),
+        CREATED_AT("createdAt", Entry::createdAt);
+
+        private final String property;
+        private final Comparator<Entry> order;
+
+        SortKey(String property, Function<Entry, Comparable<?>> value) {
+            this.property = property;
+            Comparator<Entry> byValue = (a, b) -> compare(value.apply(a), value.apply(b));
+            this.order = byValue.thenComparingLong(Entry::id);
+        }
+
+        /**
+         * @return the Game attribute this key sorts on
+         */
+        public String property() {
+            return property;
+        }
+
+        public static SortKey parse(String value) {
+            for (SortKey key : values()) {
+                if (key.property.equals(value)) {
+                    return key;
+                }
+            }
+            throw new BadRequestException("Không thể sắp xếp theo: " + value
+                    + " (name, year, rating, playCount, createdAt)");
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static int compare(Comparable a, Comparable b) {
+            if (a == null || b == null) {
+                return a == null ? (b == null ? 0 : 1) : -1; // nulls last
+            }
+            return a.compareTo(b);
+        }
+    }
+
+    /**
+     * Games matching all given conditions; null or empty means any
+     *
+     * @param search case-insensitive substring of the name
+     */
+    public record Filter(String search, Collection<String> categories, Collection<String> regions,
+            Integer yearFrom, Integer yearTo, Boolean featured) {
+    }
+
+    /**
+     * @param total  number of matching games
+     * @param ids    the requested page of them
+     * @param facets per dimension, the number of games each value would
+     *               match; empty unless asked for
+     */
+    public record Result(int total, List<Long> ids, Map<Dimension, Map<String, Integer>> facets) {
+    }
+
+    /** What the orderings need to know about a game; name is lower-cased. */
+    private record Entry(long id, String name, Integer year, Double rating, Integer playCount,
+            LocalDateTime createdAt) {
+
+        Entry withAggregates(Integer count, Double newRating) {
+            return new Entry(id, name, year, newRating, count, createdAt);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long start = System.currentTimeMillis();
+        Index loaded = new Index();
+        gameRepository.findAll().forEach(loaded::put);
+        loaded.sortAll();
+        index = loaded;
+        long fingerprint = 0;
+        for (int ord = loaded.live.nextSetBit(0); ord >= 0; ord = loaded.live.nextSetBit(ord + 1)) {
+            Entry entry = loaded.entries.get(ord);
+            fingerprint += fingerprint(entry.id(), entry.playCount(), entry.rating());
+        }
+        gameCatalog.onAggregatesChanged(List.of(), fingerprint);
+        log.info("Indexed {} games in {} ms", loaded.live.cardinality(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    @EventListener
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        Index current = index;
+        if (current == null) {
+            return; // load() reads the change anyway
+        }
+        Index patched = current.copy();
+        Set<Integer> changed = new HashSet<>();
+        event.deleted().forEach(id -> patched.remove(id, changed));
+        List<Long> missing = new ArrayList<>(event.upserted());
+        gameRepository.findAllById(event.upserted()).forEach(game -> {
+            changed.add(patched.put(game));
+            missing.remove(game.getId());
+        });
+        missing.forEach(id -> patched.remove(id, changed)); // deleted again before we read it
+        patched.resort(changed);
+        index = patched;
+    }
+
+    /**
+     * Pick up play counts and ratings updated by plain SQL since the last refresh
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.aggregate-refresh:300000}",
+            initialDelayString = "${app.catalog.aggregate-refresh:300000}")
+    public synchronized void refreshAggregates() {
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        Index patched = null;
+        Set<Integer> changed = new HashSet<>();
+        List<Long> changedIds = new ArrayList<>();
+        long fingerprint = 0;
+        for (Object[] row : gameRepository.findAggregates()) {
+            Integer ord = current.ordinals.get((Long) row[0]);
+            Integer count = (Integer) row[1];
+            Double rating = (Double) row[2];
+            if (ord == null || !current.live.get(ord)) {
+                continue;
+            }
+            fingerprint += fingerprint((Long) row[0], count, rating);
+            Entry entry = current.entries.get(ord);
+            if (Objects.equals(entry.playCount(), count) && Objects.equals(entry.rating(), rating)) {
+                continue;
+            }
+            if (patched == null) {
+                patched = current.copy();
+            }
+            patched.entries.set(ord, entry.withAggregates(count, rating));
+            changed.add(ord);
+            changedIds.add(entry.id());
+        }
+        if (patched != null) {
+            patched.resort(changed);
+            index = patched;
+            log.debug("Refreshed play counts and ratings of {} games", changed.size());
+        }
+        // After the swap, so a page cached under the new version comes from the new index. Also when no
+        // entry changed: the feed may already have patched in the new values, but the version must follow.
+        gameCatalog.onAggregatesChanged(changedIds, fingerprint);
+    }
+
+    /**
+     * One game's share of the aggregate fingerprint; summed, so row order does not matter
+     */
+    private static long fingerprint(long id, Integer playCount, Double rating) {
+        long h = id;
+        h = h * 0x9E3779B97F4A7C15L + Objects.hashCode(playCount);
+        h = h * 0x9E3779B97F4A7C15L + Objects.hashCode(rating);
+        // SplitMix64 finalizer
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Filter and cut one sorted page, all on bitmaps and precomputed orderings
+     *
+     * @param facets also count every facet value
+     */
+    public Result query(Filter filter, SortKey sortKey, boolean descending, int offset, int limit, boolean facets) {
+        Index idx = index;
+        if (idx == null) {
+            throw new ServiceUnavailableException("Danh mục game đang được tải, vui lòng thử lại sau");
+        }
+
+        BitSet base = (BitSet) idx.live.clone();
+        if (StringUtils.hasText(filter.search())) {
+            String search = filter.search().toLowerCase();
+            for (int ord = base.nextSetBit(0); ord >= 0; ord = base.nextSetBit(ord + 1)) {
+                if (!idx.entries.get(ord).name().contains(search)) {
+                    base.clear(ord);
+                }
+            }
+        }
+
+        Map<Dimension, BitSet> selected = new EnumMap<>(Dimension.class);
+        if (filter.categories() != null && !filter.categories().isEmpty()) {
+            select(selected, idx, Dimension.CATEGORY, filter.categories());
+        }
+        if (filter.regions() != null && !filter.regions().isEmpty()) {
+            select(selected, idx, Dimension.REGION, filter.regions());
+        }
+        if (filter.featured() != null) {
+            select(selected, idx, Dimension.FEATURED, List.of(filter.featured().toString()));
+        }
+        if (filter.yearFrom() != null || filter.yearTo() != null) {
+            int from = filter.yearFrom() != null ? filter.yearFrom() : Integer.MIN_VALUE;
+            int to = filter.yearTo() != null ? filter.yearTo() : Integer.MAX_VALUE;
+            select(selected, idx, Dimension.YEAR, idx.values.get(Dimension.YEAR).keySet().stream()
+                    .filter(year -> !year.equals(UNKNOWN))
+                    .filter(year -> Integer.parseInt(year) >= from && Integer.parseInt(year) <= to)
+                    .toList());
+        }
+
+        BitSet matches = (BitSet) base.clone();
+        selected.values().forEach(matches::and);
+
+        Map<Dimension, Map<String, Integer>> counts = new EnumMap<>(Dimension.class);
+        if (facets) {
+            for (Dimension dimension : Dimension.values()) {
+                BitSet others = (BitSet) base.clone();
+                selected.forEach((d, bits) -> {
+                    if (d != dimension) {
+                        others.and(bits);
+                    }
+                });
+                Map<String, Integer> values = new LinkedHashMap<>();
+                idx.values.get(dimension).forEach((value, bits) -> {
+                    BitSet both = (BitSet) bits.clone();
+                    both.and(others);
+                    values.put(value, both.cardinality());
+                });
+                counts.put(dimension, values);
+            }
+        }
+
+        int total = matches.cardinality();
+        List<Long> ids = new ArrayList<>(Math.max(Math.min(limit, total - offset), 0));
+        if (offset < total) {
+            int[] order = idx.orders.get(sortKey);
+            int skipped = 0;
+            for (int i = 0; i < order.length && ids.size() < limit; i++) {
+                int ord = order[descending ? order.length - 1 - i : i];
+                if (matches.get(ord) && skipped++ >= offset) {
+                    ids.add(idx.entries.get(ord).id());
+                }
+            }
+        }
+        return new Result(total, ids, counts);
+    }
+
+    /**
+     * Restrict {@code dimension} to any of {@code values}; none matches nothing
+     */
+    private static void select(Map<Dimension, BitSet> selected, Index idx, Dimension dimension,
+            Collection<String> values) {
+        BitSet any = new BitSet();
+        Map<String, BitSet> bitmaps = idx.values.get(dimension);
+        for (String value : values) {
+            BitSet bits = bitmaps.get(value);
+            if (bits != null) {
+                any.or(bits);
+            }
+        }
+        selected.put(dimension, any);
+    }
+
+    private static final class Index {
+        /** By ordinal; a deleted game keeps its ordinal in case it comes back. */
+        final List<Entry> entries;
+        final Map<Long, Integer> ordinals;
+        final BitSet live;
+        final Map<Dimension, Map<String, BitSet>> values;
+        /** Live ordinals in ascending order of each key. */
+        final Map<SortKey, int[]> orders;
+
+        Index() {
+            entries = new ArrayList<>();
+            ordinals = new HashMap<>();
+            live = new BitSet();
+            values = new EnumMap<>(Dimension.class);
+            values.put(Dimension.CATEGORY, new TreeMap<>());
+            values.put(Dimension.REGION, new TreeMap<>());
+            // Years in order, unknown last
+            values.put(Dimension.YEAR, new TreeMap<>(Comparator
+                    .comparing((String year) -> year.equals(UNKNOWN))
+                    .thenComparing(Comparator.naturalOrder())));
+            values.put(Dimension.FEATURED, new TreeMap<>());
+            orders = new EnumMap<>(SortKey.class);
+        }
+
+        Index copy() {
+            Index copy = new Index();
+            copy.entries.addAll(entries);
+            copy.ordinals.putAll(ordinals);
+            copy.live.or(live);
+            values.forEach((dimension, bitmaps) ->
+                    bitmaps.forEach((value, bits) -> copy.values.get(dimension).put(value, (BitSet) bits.clone())));
+            copy.orders.putAll(orders); // replaced, never modified
+            return copy;
+        }
+
+        /**
+         * @return the game's ordinal
+         */
+        int put(Game game) {
+            int ord = ordinals.computeIfAbsent(game.getId(), id -> {
+                entries.add(null);
+                return entries.size() - 1;
+            });
+            clear(ord);
+            live.set(ord);
+            entries.set(ord, new Entry(game.getId(), game.getName() != null ? game.getName().toLowerCase() : "",
+                    game.getYear(), game.getRating(), game.getPlayCount(), game.getCreatedAt()));
+            set(Dimension.CATEGORY, game.getCategory() != null ? game.getCategory().getName() : null, ord);
+            set(Dimension.REGION, game.getRegion(), ord);
+            set(Dimension.YEAR, game.getYear() != null ? game.getYear().toString() : null, ord);
+            set(Dimension.FEATURED, String.valueOf(Boolean.TRUE.equals(game.getIsFeatured())), ord);
+            return ord;
+        }
+
+        void remove(Long id, Set<Integer> changed) {
+            Integer ord = ordinals.get(id);
+            if (ord != null) {
+                clear(ord);
+                changed.add(ord);
+            }
+        }
+
+        void sortAll() {
+            for (SortKey key : SortKey.values()) {
+                orders.put(key, live.stream().boxed()
+                        .sorted(byEntry(key))
+                        .mapToInt(Integer::intValue)
+                        .toArray());
+            }
+        }
+
+        /**
+         * Take the changed ordinals out of every ordering, sort the live
+         * ones among them and merge them back in
+         */
+        void resort(Set<Integer> changed) {
+            if (changed.isEmpty()) {
+                return;
+            }
+            for (SortKey key : SortKey.values()) {
+                Comparator<Integer> order = byEntry(key);
+                int[] current = orders.get(key);
+                int[] added = changed.stream().filter(live::get).sorted(order).mapToInt(Integer::intValue).toArray();
+                int[] merged = new int[live.cardinality()];
+                int i = 0, j = 0, k = 0;
+                while (i < current.length || j < added.length) {
+                    if (i < current.length && changed.contains(current[i])) {
+                        i++;
+                    } else if (j >= added.length
+                            || (i < current.length && order.compare(current[i], added[j]) <= 0)) {
+                        merged[k++] = current[i++];
+                    } else {
+                        merged[k++] = added[j++];
+                    }
+                }
+                orders.put(key, merged);
+            }
+        }
+
+        private Comparator<Integer> byEntry(SortKey key) {
+            return (a, b) -> key.order.compare(entries.get(a), entries.get(b));
+        }
+
+        private void set(Dimension dimension, String value, int ord) {
+            values.get(dimension).computeIfAbsent(StringUtils.hasText(value) ? value : UNKNOWN, v -> new BitSet())
+                    .set(ord);
+        }
+
+        private void clear(int ord) {
+            live.clear(ord);
+            for (Map<String, BitSet> bitmaps : values.values()) {
+                bitmaps.values().removeIf(bits -> {
+                    bits.clear(ord);
+                    return bits.isEmpty();
+                });
+            }
+        }
+    }
+}
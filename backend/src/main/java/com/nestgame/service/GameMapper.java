@@ -0,0 +1,44 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.GameDTO;
+import com.nestgame.entity.Game;
+import com.nestgame.service.ImageService.ImageKind;
+import com.nestgame.service.ImageService.ThumbnailSize;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps {@link Game} entities to {@link GameDTO}s
+ */
+@Component
+@RequiredArgsConstructor
+public class GameMapper {
+
+    private final ImageService imageService;
+
+    public GameDTO toDTO(Game game) {
+        return GameDTO.builder()
+                .id(game.getId())
+                .name(game.getName())
+                .fileName(game.getFileName())
+                .path(game.getPath())
+                .categoryId(game.getCategory() != null ? game.getCategory().getId() : null)
+                .categoryName(game.getCategory() != null ? game.getCategory().getName() : null)
+                .category(game.getCategory() != null ? game.getCategory().getName() : null)
+                .description(game.getDescription())
+                .rating(game.getRating())
+                .year(game.getYear())
+                .region(game.getRegion())
+                .isFeatured(game.getIsFeatured())
+                .imageUrl(game.getImageUrl())
+                .imageSnap(game.getImageSnap())
+                .imageTitle(game.getImageTitle())
+                .thumbnailUrl(imageService.thumbnailUrl(game, ImageKind.BOX, ThumbnailSize.SMALL))
+                .thumbnailSnap(imageService.thumbnailUrl(game, ImageKind.SNAP, ThumbnailSize.SMALL))
+                .thumbnailTitle(imageService.thumbnailUrl(game, ImageKind.TITLE, ThumbnailSize.SMALL))
+                .playCount(game.getPlayCount())
+                .createdAt(game.getCreatedAt())
+                .updatedAt(game.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.nestgame.service;
+
+import com.nestgame.entity.Game;
+import com.nestgame.entity.GameRating;
+import com.nestgame.entity.User;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.repository.GameRatingRepository;
+import com.nestgame.repository.GameRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Star ratings. A rating, its change log entry and the game's average are
+ * written in one transaction. The average is written in SQL rather than
+ * through the entity: ratings are frequent, and a catalog change per rating
+ * would serialize them on the catalog log and rebuild everything derived
+ * from the catalog.
+ */
+@Service
+@RequiredArgsConstructor
+public class GameRatingService {
+
+    private final GameRatingRepository ratingRepository;
+    private final GameRepository gameRepository;
+    private final UserChangeService userChangeService;
+
+    /**
+     * Set the user's rating of a game
+     *
+     * @return the game's new average rating, rounded to one decimal
+     */
+    @Transactional
+    public double rate(User user, Long gameId, int rating) {
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy game với ID: " + gameId));
+
+        GameRating gameRating = ratingRepository.findByUserIdAndGameId(user.getId(), gameId)
+                .orElse(GameRating.builder()
+                        .user(user)
+                        .game(game)
+                        .build());
+        gameRating.setRating(rating);
+        gameRating.setUpdatedAt(LocalDateTime.now());
+        ratingRepository.save(gameRating);
+        userChangeService.record(user.getId(), UserChangeService.RATING, gameId, false);
+
+        // Kept on the game for leaderboard sorting; GameIndex picks it up with the play counts
+        Double avgRating = ratingRepository.getAverageRatingByGameId(gameId);
+        double average = avgRating != null ? Math.round(avgRating * 10) / 10.0 : rating;
+        gameRepository.updateRating(gameId, average, LocalDateTime.now());
+        return average;
+    }
+}
@@ -1,26 +1,247 @@
 package com.nestgame.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.nestgame.dto.GameDTO;
+import com.nestgame.dto.GameFacetsDTO;
+import com.nestgame.dto.GamePageDTO;
 import com.nestgame.entity.Game;
-import com.nestgame.repository.GameRepository;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.repository.GameProjectionRepository;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class GameService {
-    private final GameRepository gameRepository;
+    private final GameMapper gameMapper;
+    private final GameCatalog gameCatalog;
+    private final GameFields gameFields;
+    private final GameProjectionRepository gameProjectionRepository;
+    private final GameIndex gameIndex;
 
-    public Page<GameDTO> getGames(String search, String category, String region, Pageable pageable) {
-        Specification<Game> spec = (root, query, cb) -> {
+    private static final int MAX_BATCH_SIZE = 300;
+    private static final int MAX_FACET_PAGE_SIZE = 100;
+
+    /**
+     * How {@link GamePageDTO#total()} is computed. The index and the last
+     * page of a database read know the total anyway; they always return it
+     * exactly.
+     */
+    public enum CountMode {
+        /** No total, only whether a next page exists */
+        NONE,
+        /** Planner statistics or a recently cached count; {@code exact} is false */
+        ESTIMATE,
+        /** A count query over the filter */
+        EXACT;
+
+        public static CountMode parse(String value) {
+            for (CountMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value)) {
+                    return mode;
+                }
+            }
+            throw new BadRequestException("Chế độ đếm không hợp lệ: " + value + " (none, estimate, exact)");
+        }
+    }
+
+    private record CountKey(String search, String category, String region) {
+    }
+
+    /** Filtered totals for count=estimate; a minute old at most. */
+    private final Cache<CountKey, Long> estimatedCounts = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
+    /**
+     * Whole games of one page, in the order of {@code GET /games}, without counting
+     */
+    public List<GameDTO> getGames(String search, String category, String region, int page, int size,
+            GameIndex.SortKey sortKey, boolean descending) {
+        if (!gameIndex.isLoaded()) {
+            return gameProjectionRepository.findAll(filters(search, category, region),
+                            pageRequest(page, size, sortKey, descending), null, size).stream()
+                    .map(gameMapper::toDTO)
+                    .toList();
+        }
+        GameIndex.Filter filter = new GameIndex.Filter(search, only(category), only(region), null, null, null);
+        return gamesOf(gameIndex.query(filter, sortKey, descending, offset(page, size), size, false).ids());
+    }
+
+    /**
+     * A page of games, sorted and filtered on the in-memory index. Until the
+     * index has loaded the page is read from the database instead, with one
+     * extra row to tell whether a next page exists, so {@code count=none}
+     * never counts; the other modes count only when the total cannot be
+     * derived from the page itself.
+     *
+     * @param fields comma-separated field names, or null for whole games;
+     *               only the columns those fields need are read
+     */
+    public GamePageDTO getGames(String search, String category, String region, int page, int size,
+            GameIndex.SortKey sortKey, boolean descending, String fields, CountMode countMode) {
+        if (gameIndex.isLoaded()) {
+            return getIndexedGames(search, category, region, page, size, sortKey, descending, fields, countMode);
+        }
+        Pageable pageable = pageRequest(page, size, sortKey, descending);
+        Set<String> selected = gameFields.parse(fields);
+        Specification<Game> spec = filters(search, category, region);
+
+        List<Game> rows = gameProjectionRepository.findAll(spec, pageable,
+                selected != null ? gameFields.attributes(selected) : null, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+        List<?> content = rows.stream()
+                .map(game -> selected != null
+                        ? gameFields.project(gameMapper.toDTO(game), selected)
+                        : gameMapper.toDTO(game))
+                .toList();
+
+        // The last page tells the total exactly, unless it is empty because the offset ran past the end
+        long seen = pageable.getOffset() + rows.size();
+        if (countMode == CountMode.NONE) {
+            return new GamePageDTO(content, page, size, hasNext, null, false);
+        }
+        if (!hasNext && (!rows.isEmpty() || pageable.getOffset() == 0)) {
+            return new GamePageDTO(content, page, size, false, seen, true);
+        }
+        if (countMode == CountMode.EXACT) {
+            return new GamePageDTO(content, page, size, hasNext, gameProjectionRepository.count(spec), true);
+        }
+        // An estimate must not contradict the page: at least the rows seen plus the next one. An empty
+        // page past the end proves nothing about the offset.
+        long seenAtLeast = rows.isEmpty() ? 0 : seen + (hasNext ? 1 : 0);
+        long estimate = Math.max(estimateCount(spec, search, category, region), seenAtLeast);
+        return new GamePageDTO(content, page, size, hasNext, estimate, false);
+    }
+
+    /**
+     * The index knows the exact total of every filter, so each count mode
+     * but {@code none} gets it for free
+     */
+    private GamePageDTO getIndexedGames(String search, String category, String region, int page, int size,
+            GameIndex.SortKey sortKey, boolean descending, String fields, CountMode countMode) {
+        Set<String> selected = gameFields.parse(fields);
+        GameIndex.Filter filter = new GameIndex.Filter(search, only(category), only(region), null, null, null);
+        int offset = offset(page, size);
+
+        GameIndex.Result result = gameIndex.query(filter, sortKey, descending, offset, size, false);
+        List<?> content = select(gamesOf(result.ids()), selected);
+        boolean hasNext = (long) offset + result.ids().size() < result.total();
+        return new GamePageDTO(content, page, size, hasNext,
+                countMode == CountMode.NONE ? null : (long) result.total(), countMode != CountMode.NONE);
+    }
+
+    private long estimateCount(Specification<Game> spec, String search, String category, String region) {
+        boolean unfiltered = !StringUtils.hasText(search)
+                && (!StringUtils.hasText(category) || "all".equalsIgnoreCase(category))
+                && (!StringUtils.hasText(region) || "all".equalsIgnoreCase(region));
+        if (unfiltered) {
+            long estimate = gameProjectionRepository.estimateCount();
+            if (estimate >= 0) {
+                return estimate;
+            }
+        }
+        CountKey key = new CountKey(search != null ? search.toLowerCase() : null, category, region);
+        return estimatedCounts.get(key, k -> gameProjectionRepository.count(spec));
+    }
+
+    /**
+     * A page of games filtered on the in-memory index, with facet counts.
+     * Categories and regions may list several values, of which any matches.
+     */
+    public GameFacetsDTO getFacets(GameIndex.Filter filter, int page, int size, GameIndex.SortKey sortKey,
+            boolean descending, String fields) {
+        Set<String> selected = gameFields.parse(fields);
+        int pageSize = Math.min(Math.max(size, 1), MAX_FACET_PAGE_SIZE);
+        int offset = Math.max(page, 0) * pageSize;
+
+        GameIndex.Result result = gameIndex.query(filter, sortKey, descending, offset, pageSize, true);
+        List<?> games = select(gamesOf(result.ids()), selected);
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        result.facets().forEach((dimension, counts) -> facets.put(dimension.name().toLowerCase(), counts));
+        return new GameFacetsDTO(result.total(), Math.max(page, 0), pageSize, games, facets);
+    }
+
+    /**
+     * Games of the catalog in {@code ids} order
+     */
+    private List<GameDTO> gamesOf(List<Long> ids) {
+        Map<Long, GameDTO> found = gameCatalog.getAll(ids);
+        List<GameDTO> games = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            GameDTO game = found.get(id);
+            if (game != null) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    private static int offset(int page, int size) {
+        return (int) Math.min((long) page * size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The index's order for the database: ties broken by id, in the same direction
+     */
+    private static Pageable pageRequest(int page, int size, GameIndex.SortKey sortKey, boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return PageRequest.of(page, size, Sort.by(direction, sortKey.property(), "id"));
+    }
+
+    /**
+     * A single filter value as the index takes it; empty or "all" means any
+     */
+    private static List<String> only(String value) {
+        return StringUtils.hasText(value) && !"all".equalsIgnoreCase(value) ? List.of(value) : null;
+    }
+
+    /**
+     * Trim already mapped games to {@code fields}
+     *
+     * @param fields comma-separated field names, or null for whole games
+     */
+    public List<?> select(List<GameDTO> games, String fields) {
+        return select(games, gameFields.parse(fields));
+    }
+
+    private List<?> select(List<GameDTO> games, Set<String> selected) {
+        if (selected == null) {
+            return games;
+        }
+        return games.stream().map(game -> gameFields.project(game, selected)).toList();
+    }
+
+    /**
+     * One game trimmed to {@code fields}
+     */
+    public Object select(GameDTO game, String fields) {
+        Set<String> selected = gameFields.parse(fields);
+        return selected == null ? game : gameFields.project(game, selected);
+    }
+
+    private static Specification<Game> filters(String search, String category, String region) {
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             if (StringUtils.hasText(search)) {
@@ -38,36 +259,41 @@ public class GameService {
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
-
-        return gameRepository.findAll(spec, pageable).map(this::mapToDTO);
     }
 
     public GameDTO getGameById(Long id) {
-        return gameRepository.findById(id)
-                .map(this::mapToDTO)
+        return gameCatalog.get(id)
                 .orElseThrow(() -> new RuntimeException("Game not found"));
     }
 
-    private GameDTO mapToDTO(Game game) {
-        return GameDTO.builder()
-                .id(game.getId())
-                .name(game.getName())
-                .fileName(game.getFileName())
-                .path(game.getPath())
-                .categoryId(game.getCategory() != null ? game.getCategory().getId() : null)
-                .categoryName(game.getCategory() != null ? game.getCategory().getName() : null)
-                .category(game.getCategory() != null ? game.getCategory().getName() : null)
-                .description(game.getDescription())
-                .rating(game.getRating())
-                .year(game.getYear())
-                .region(game.getRegion())
-                .isFeatured(game.getIsFeatured())
-                .imageUrl(game.getImageUrl())
-                .imageSnap(game.getImageSnap())
-                .imageTitle(game.getImageTitle())
-                .playCount(game.getPlayCount())
-                .createdAt(game.getCreatedAt())
-                .updatedAt(game.getUpdatedAt())
-                .build();
+    /**
+     * Many games in one call, in request order
+     *
+     * @param fields comma-separated field names, or null for whole games
+     * @return {@code games} found and the {@code missing} ids
+     */
+    public Map<String, Object> getGamesByIds(List<Long> ids, String fields) {
+        Set<Long> unique = new LinkedHashSet<>(ids);
+        if (unique.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Tối đa " + MAX_BATCH_SIZE + " game mỗi lần");
+        }
+        Set<String> selected = gameFields.parse(fields);
+
+        Map<Long, GameDTO> found = gameCatalog.getAll(unique);
+        List<Object> games = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : unique) {
+            GameDTO game = found.get(id);
+            if (game == null) {
+                missing.add(id);
+            } else {
+                games.add(selected != null ? gameFields.project(game, selected) : game);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("games", games);
+        result.put("missing", missing);
+        return result;
     }
 }
@@ -0,0 +1,66 @@
+package com.nestgame.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Fetches source images over HTTP(S)
+ */
+@Component
+@Slf4j
+public class HttpImageFetcher implements ImageFetcher {
+
+    private static final long MAX_IMAGE_BYTES = 10 * 1024 * 1024;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    @Override
+    public void fetch(String url, OutputStream out) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(20))
+                .GET()
+                .build();
+
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + url, e);
+        }
+
+        try (InputStream body = response.body()) {
+            if (response.statusCode() == 404) {
+                throw new FileNotFoundException(url);
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected status " + response.statusCode() + " fetching " + url);
+            }
+
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > MAX_IMAGE_BYTES) {
+                    throw new IOException("Image exceeds " + MAX_IMAGE_BYTES + " bytes: " + url);
+                }
+                out.write(buffer, 0, read);
+            }
+            log.debug("Fetched {} bytes from {}", total, url);
+        }
+    }
+}
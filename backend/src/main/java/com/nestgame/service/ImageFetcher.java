@@ -0,0 +1,17 @@
+package com.nestgame.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Downloads source images for thumbnail generation.
+ */
+public interface ImageFetcher {
+
+    /**
+     * Copy the image found at {@code url} into {@code out}.
+     *
+     * @throws java.io.FileNotFoundException if the source does not exist
+     */
+    void fetch(String url, OutputStream out) throws IOException;
+}
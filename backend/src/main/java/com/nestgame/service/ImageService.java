@@ -0,0 +1,248 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.GameDTO;
+import com.nestgame.entity.Game;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.exception.ServiceUnavailableException;
+import com.nestgame.util.DiskCache;
+import com.nestgame.util.ImageCodec;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Serves game artwork as locally cached thumbnails.
+ *
+ * Each source image is downloaded once, decoded once, and every thumbnail size
+ * is generated from that single decode on the bounded image pool. Sources and
+ * thumbnails are kept in a size-bounded disk cache.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageService {
+
+    public enum ImageKind {
+        BOX(Game::getImageUrl, GameDTO::imageUrl),
+        SNAP(Game::getImageSnap, GameDTO::imageSnap),
+        TITLE(Game::getImageTitle, GameDTO::imageTitle);
+
+        private final Function<Game, String> source;
+        private final Function<GameDTO, String> mappedSource;
+
+        ImageKind(Function<Game, String> source, Function<GameDTO, String> mappedSource) {
+            this.source = source;
+            this.mappedSource = mappedSource;
+        }
+
+        public String sourceOf(Game game) {
+            return source.apply(game);
+        }
+
+        public String sourceOf(GameDTO game) {
+            return mappedSource.apply(game);
+        }
+
+        public static ImageKind parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Loại ảnh không hợp lệ: " + value);
+            }
+        }
+    }
+
+    public enum ThumbnailSize {
+        SMALL(160),
+        MEDIUM(320);
+
+        private final int pixels;
+
+        ThumbnailSize(int pixels) {
+            this.pixels = pixels;
+        }
+
+        public int pixels() {
+            return pixels;
+        }
+
+        public static ThumbnailSize parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Kích thước ảnh không hợp lệ: " + value);
+            }
+        }
+    }
+
+    private final ImageFetcher imageFetcher;
+    private final ExecutorService imageExecutor;
+
+    @Value("${app.images.cache-dir}")
+    private String cacheDir;
+
+    @Value("${app.images.max-cache-size:1GB}")
+    private DataSize maxCacheSize;
+
+    @Value("${app.images.base-url:/api/images}")
+    private String baseUrl;
+
+    @Value("${app.images.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private DiskCache cache;
+
+    @PostConstruct
+    public void init() throws IOException {
+        cache = new DiskCache(Path.of(cacheDir, "thumbnails"), maxCacheSize.toBytes());
+        log.info("Image cache initialized at {} (max {}), output format {}", cacheDir, maxCacheSize,
+                ImageCodec.OUTPUT_FORMAT);
+    }
+
+    /**
+     * Public URL of a game thumbnail, or null if the game has no such image.
+     */
+    public String thumbnailUrl(Game game, ImageKind kind, ThumbnailSize size) {
+        if (game.getId() == null || kind.sourceOf(game) == null) {
+            return null;
+        }
+        return baseUrl + "/games/" + game.getId() + "/" + kind.name().toLowerCase(Locale.ROOT)
+                + "/" + size.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Thumbnail of a game from the catalog cache, so a cache hit never reads the database
+     */
+    public Path getThumbnail(GameDTO game, ImageKind kind, ThumbnailSize size) {
+        String sourceUrl = kind.sourceOf(game);
+        if (sourceUrl == null) {
+            throw new ResourceNotFoundException("Game không có ảnh " + kind.name().toLowerCase(Locale.ROOT));
+        }
+        return getThumbnail(sourceUrl, size);
+    }
+
+    /**
+     * Return the cached thumbnail for a source image, generating all sizes on
+     * the image pool if needed. Concurrent requests for the same source share
+     * a single download and decode.
+     */
+    public Path getThumbnail(String sourceUrl, ThumbnailSize size) {
+        String key = thumbnailKey(sourceUrl, size);
+        return cache.get(key).orElseGet(() -> {
+            awaitGeneration(sourceUrl);
+            return cache.get(key)
+                    .orElseThrow(() -> new ServiceUnavailableException("Ảnh đang được xử lý, vui lòng thử lại"));
+        });
+    }
+
+    /**
+     * Like {@link #getThumbnail(String, ThumbnailSize)}, but without waiting:
+     * the future completes once the thumbnail is on disk
+     */
+    public CompletableFuture<Path> getThumbnailAsync(String sourceUrl, ThumbnailSize size) {
+        String key = thumbnailKey(sourceUrl, size);
+        Optional<Path> cached = cache.get(key);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        try {
+            return generation(sourceUrl).thenApply(done -> cache.get(key)
+                    .orElseThrow(() -> new ServiceUnavailableException("Ảnh đang được xử lý, vui lòng thử lại")));
+        } catch (ServiceUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void awaitGeneration(String sourceUrl) {
+        CompletableFuture<Void> future = generation(sourceUrl);
+        try {
+            future.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Xử lý ảnh bị gián đoạn");
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Ảnh đang được xử lý, vui lòng thử lại");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException io ? io.getCause() : e.getCause();
+            if (cause instanceof FileNotFoundException) {
+                throw new ResourceNotFoundException("Không tìm thấy ảnh gốc: " + sourceUrl);
+            }
+            log.error("Failed to generate thumbnails for {}: {}", sourceUrl, cause.getMessage());
+            throw new RuntimeException("Không thể tạo ảnh thu nhỏ");
+        }
+    }
+
+    /**
+     * The generation of all sizes of {@code sourceUrl}, started on the image pool unless already running
+     */
+    private CompletableFuture<Void> generation(String sourceUrl) {
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> future = inFlight.putIfAbsent(sourceUrl, created);
+        if (future == null) {
+            future = created;
+            try {
+                imageExecutor.execute(() -> {
+                    try {
+                        generate(sourceUrl);
+                        created.complete(null);
+                    } catch (RuntimeException e) {
+                        created.completeExceptionally(e);
+                    } finally {
+                        inFlight.remove(sourceUrl, created);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(sourceUrl, created);
+                throw new ServiceUnavailableException("Hệ thống xử lý ảnh đang quá tải, vui lòng thử lại sau");
+            }
+        }
+        return future;
+    }
+
+    private void generate(String sourceUrl) {
+        try {
+            String sourceKey = "source:" + sourceUrl;
+            Path source = cache.get(sourceKey).orElse(null);
+            if (source == null) {
+                source = cache.put(sourceKey, out -> imageFetcher.fetch(sourceUrl, out));
+            }
+
+            int largest = ThumbnailSize.values()[ThumbnailSize.values().length - 1].pixels();
+            BufferedImage image = ImageCodec.read(source, largest);
+            for (ThumbnailSize size : ThumbnailSize.values()) {
+                BufferedImage thumbnail = ImageCodec.scaleToFit(image, size.pixels());
+                cache.put(thumbnailKey(sourceUrl, size), out -> ImageCodec.write(thumbnail, out));
+            }
+            log.debug("Generated thumbnails for {}", sourceUrl);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String thumbnailKey(String sourceUrl, ThumbnailSize size) {
+        return "thumb:" + size.name() + ":" + ImageCodec.OUTPUT_FORMAT + ":" + sourceUrl;
+    }
+}
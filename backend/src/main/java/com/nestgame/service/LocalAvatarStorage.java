@@ -0,0 +1,68 @@
+package com.nestgame.service;
+
+import com.nestgame.util.ImageCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Stores avatars on the local filesystem; they are served by the
+ * resource handler registered in {@link com.nestgame.config.AvatarConfig}.
+ */
+@Service
+@ConditionalOnProperty(name = "app.avatars.storage", havingValue = "local")
+@Slf4j
+public class LocalAvatarStorage implements AvatarStorage {
+
+    @Value("${app.avatars.local-dir}")
+    private String localDir;
+
+    @Value("${app.avatars.base-url:/api/avatars}")
+    private String baseUrl;
+
+    @Override
+    public String store(Path image, Long userId) throws IOException {
+        Path dir = Path.of(localDir);
+        Files.createDirectories(dir);
+
+        // A new name per upload, so browsers never keep showing the previous avatar
+        String fileName = "user_" + userId + "_" + UUID.randomUUID().toString().replace("-", "")
+                + "." + ImageCodec.OUTPUT_EXTENSION;
+        Files.copy(image, dir.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+
+        String url = baseUrl + "/" + fileName;
+        log.info("Avatar stored locally for user {}: {}", userId, url);
+        return url;
+    }
+
+    /**
+     * Also removes avatars stored by older builds under {@code user_<id>.<ext>?v=...}
+     */
+    @Override
+    public void delete(String avatarUrl) {
+        if (avatarUrl == null || !avatarUrl.startsWith(baseUrl + "/")) {
+            return;
+        }
+        String fileName = avatarUrl.substring(baseUrl.length() + 1);
+        int query = fileName.indexOf('?');
+        if (query >= 0) {
+            fileName = fileName.substring(0, query);
+        }
+        if (!fileName.startsWith("user_") || fileName.contains("/") || fileName.contains("\\")) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Path.of(localDir).resolve(fileName));
+            log.info("Avatar deleted: {}", fileName);
+        } catch (IOException e) {
+            log.error("Failed to delete avatar {}: {}", fileName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.nestgame.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nestgame.dto.NetplayRoomDTO;
+import com.nestgame.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-player netplay relay.
+ *
+ * Players connecting for the same game are paired into a room; a private
+ * room code keeps strangers out. Input travels as fixed-size binary frames:
+ *
+ * <pre>
+ * 0      type      1 = input, 2 = ping, 3 = pong, 4 = keyframe
+ * 1      port      controller port, stamped by the server
+ * 2..3   input     controller state (NES uses the low byte); save state slot for keyframes
+ * 4..7   sequence  frame number, strictly increasing per player
+ * 8..11  stamp     ping: server clock in ms, echoed back in the pong
+ * </pre>
+ *
+ * Frames are relayed inline on the thread that received them, so there is no
+ * thread per room. The container's payload buffer is stamped in place and
+ * written straight to the peer; nothing is allocated per frame.
+ *
+ * Every room is also a live stream for spectators. A solo room never pairs
+ * and only broadcasts. Private rooms are left out of the public listing and
+ * can only be watched with their code or by their players. The host
+ * announces keyframes with a type 4 frame whose input field carries the
+ * cloud save state slot it just wrote.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NetplayService {
+
+    public static final int FRAME_SIZE = 12;
+    public static final String USER_ATTRIBUTE = "netplay.user";
+    public static final String GAME_ATTRIBUTE = "netplay.gameId";
+    public static final String CODE_ATTRIBUTE = "netplay.code";
+    public static final String SOLO_ATTRIBUTE = "netplay.solo";
+
+    private static final String PLAYER_ATTRIBUTE = "netplay.player";
+    private static final byte TYPE_INPUT = 1;
+    private static final byte TYPE_PING = 2;
+    private static final byte TYPE_PONG = 3;
+
+    private final ObjectMapper objectMapper;
+    private final SpectatorService spectatorService;
+
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+    private final Map<String, Room> waiting = new HashMap<>(); // guarded by this
+    private final AtomicLong roomIds = new AtomicLong();
+
+    @Value("${app.netplay.max-rooms:10000}")
+    private int maxRooms;
+
+    /**
+     * Put a freshly connected player into a waiting room or create one
+     */
+    public void join(WebSocketSession session) throws IOException {
+        User user = (User) session.getAttributes().get(USER_ATTRIBUTE);
+        Long gameId = (Long) session.getAttributes().get(GAME_ATTRIBUTE);
+        String code = (String) session.getAttributes().get(CODE_ATTRIBUTE);
+        boolean solo = session.getAttributes().containsKey(SOLO_ATTRIBUTE);
+        String key = code == null ? "g:" + gameId : "p:" + gameId + ":" + code;
+
+        Room room;
+        Player player;
+        synchronized (this) {
+            room = solo ? null : waiting.remove(key);
+            if (room == null) {
+                if (rooms.size() >= maxRooms) {
+                    session.close(CloseStatus.SERVICE_OVERLOAD);
+                    return;
+                }
+                room = new Room(roomIds.incrementAndGet(), gameId, key, code, solo);
+                rooms.put(room.id, room);
+                spectatorService.openChannel(room.id, FRAME_SIZE);
+                if (!solo) {
+                    waiting.put(key, room);
+                }
+                player = new Player(room, 0, user, session);
+                room.players[0] = player;
+            } else {
+                player = new Player(room, 1, user, session);
+                room.players[1] = player;
+            }
+            session.getAttributes().put(PLAYER_ATTRIBUTE, player);
+        }
+
+        if (solo) {
+            room.startedAt = LocalDateTime.now();
+            player.send(control(Map.of("type", "broadcasting", "roomId", room.id, "port", 0)));
+        } else if (player.port == 0) {
+            player.send(control(Map.of("type", "waiting", "roomId", room.id, "port", 0)));
+        } else {
+            room.startedAt = LocalDateTime.now();
+            for (Player p : room.players) {
+                p.send(control(Map.of("type", "paired", "roomId", room.id, "port", p.port,
+                        "opponent", room.players[1 - p.port].user.getUsername())));
+            }
+            log.info("Netplay room {} started for game {}", room.id, gameId);
+        }
+    }
+
+    public void leave(WebSocketSession session) {
+        Player player = (Player) session.getAttributes().remove(PLAYER_ATTRIBUTE);
+        if (player == null) {
+            return;
+        }
+        Room room = player.room;
+        Player peer;
+        synchronized (this) {
+            waiting.remove(room.key, room);
+            rooms.remove(room.id);
+            peer = room.players[1 - player.port];
+        }
+        spectatorService.closeChannel(room.id);
+        if (peer != null && peer.session.isOpen()) {
+            try {
+                peer.send(control(Map.of("type", "peer-left")));
+                peer.session.close(CloseStatus.NORMAL);
+            } catch (IOException e) {
+                log.debug("Failed to notify netplay peer: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Relay one frame from {@code session} to its peer
+     */
+    public void relay(WebSocketSession session, BinaryMessage message) throws IOException {
+        Player sender = (Player) session.getAttributes().get(PLAYER_ATTRIBUTE);
+        ByteBuffer frame = message.getPayload();
+        if (sender == null || frame.remaining() != FRAME_SIZE) {
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+
+        int base = frame.position();
+        switch (frame.get(base)) {
+            case TYPE_INPUT -> {
+                int sequence = frame.getInt(base + 4);
+                if (sender.framesSent > 0 && Integer.compareUnsigned(sequence, sender.lastSequence) <= 0) {
+                    sender.framesDropped++;
+                    return;
+                }
+                sender.lastSequence = sequence;
+                sender.framesSent++;
+                frame.put(base + 1, (byte) sender.port);
+                spectatorService.publish(sender.room.id, frame);
+
+                Player peer = sender.room.players[1 - sender.port];
+                if (peer == null) {
+                    return; // still waiting for an opponent
+                }
+                long start = System.nanoTime();
+                peer.send(message);
+                sender.recordRelay(System.nanoTime() - start);
+            }
+            case SpectatorService.TYPE_KEYFRAME -> {
+                if (sender.port != 0) {
+                    return; // only the host publishes keyframes
+                }
+                frame.put(base + 1, (byte) sender.port);
+                SpectatorService.Keyframe keyframe = new SpectatorService.Keyframe(sender.user,
+                        sender.room.gameId, frame.getShort(base + 2) & 0xFFFF,
+                        Integer.toUnsignedLong(frame.getInt(base + 4)));
+                spectatorService.keyframe(sender.room.id, keyframe, frame);
+            }
+            case TYPE_PONG -> sender.recordRoundTrip((int) nowMillis() - frame.getInt(base + 8));
+            default -> session.close(CloseStatus.BAD_DATA);
+        }
+    }
+
+    /**
+     * Ping every player once a second to measure latency and jitter
+     */
+    @Scheduled(fixedRate = 1000)
+    public void ping() {
+        int stamp = (int) nowMillis();
+        for (Room room : rooms.values()) {
+            for (Player player : room.players) {
+                if (player == null || !player.session.isOpen()) {
+                    continue;
+                }
+                ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE);
+                frame.put(0, TYPE_PING).put(1, (byte) player.port).putInt(8, stamp);
+                try {
+                    player.send(new BinaryMessage(frame));
+                } catch (IOException e) {
+                    log.debug("Netplay ping to room {} failed: {}", room.id, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Every room, private ones included
+     *
+     * @param gameId only rooms of this game, or null for all
+     */
+    public List<NetplayRoomDTO> getRooms(Long gameId) {
+        return listRooms(gameId, true);
+    }
+
+    /**
+     * Rooms anyone may see and watch
+     */
+    public List<NetplayRoomDTO> getPublicRooms(Long gameId) {
+        return listRooms(gameId, false);
+    }
+
+    /**
+     * Whether {@code user} (null if anonymous) may watch a room: anyone may
+     * watch a public room, a private one needs its code or a seat in it
+     */
+    public boolean canWatch(long roomId, User user, String code) {
+        Room room = rooms.get(roomId);
+        if (room == null) {
+            return false;
+        }
+        if (room.code == null) {
+            return true;
+        }
+        if (code != null && MessageDigest.isEqual(code.getBytes(StandardCharsets.UTF_8),
+                room.code.getBytes(StandardCharsets.UTF_8))) {
+            return true;
+        }
+        if (user == null) {
+            return false;
+        }
+        for (Player player : room.players) {
+            if (player != null && player.user.getId().equals(user.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<NetplayRoomDTO> listRooms(Long gameId, boolean includePrivate) {
+        List<NetplayRoomDTO> result = new ArrayList<>();
+        for (Room room : rooms.values()) {
+            if ((gameId == null || room.gameId.equals(gameId)) && (includePrivate || room.code == null)) {
+                result.add(toDTO(room));
+            }
+        }
+        result.sort(Comparator.comparing(NetplayRoomDTO::id));
+        return result;
+    }
+
+    private TextMessage control(Map<String, Object> payload) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long nowMillis() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    private NetplayRoomDTO toDTO(Room room) {
+        List<NetplayRoomDTO.Player> players = new ArrayList<>();
+        for (Player p : room.players) {
+            if (p != null) {
+                players.add(new NetplayRoomDTO.Player(p.user.getId(), p.user.getUsername(), p.port,
+                        p.roundTripMillis, p.jitterMillis, p.framesSent, p.framesDropped,
+                        p.relayNanos / 1000.0));
+            }
+        }
+        return new NetplayRoomDTO(room.id, room.gameId, room.code != null, room.solo, players,
+                spectatorService.getSpectatorCount(room.id), room.createdAt, room.startedAt);
+    }
+
+    private static final class Room {
+        final long id;
+        final Long gameId;
+        final String key;
+        final String code; // null for a public room
+        final boolean solo;
+        final Player[] players = new Player[2];
+        final LocalDateTime createdAt = LocalDateTime.now();
+        volatile LocalDateTime startedAt;
+
+        Room(long id, Long gameId, String key, String code, boolean solo) {
+            this.id = id;
+            this.gameId = gameId;
+            this.key = key;
+            this.code = code;
+            this.solo = solo;
+        }
+    }
+
+    /**
+     * Per-player state. Counters are written only by the thread handling this
+     * player's messages and read by the stats endpoint.
+     */
+    private static final class Player {
+        final Room room;
+        final int port;
+        final User user;
+        final WebSocketSession session;
+
+        int lastSequence;
+        int lastRoundTrip = -1;
+        volatile long framesSent;
+        volatile long framesDropped;
+        volatile double roundTripMillis;
+        volatile double jitterMillis;
+        volatile double relayNanos;
+
+        Player(Room room, int port, User user, WebSocketSession session) {
+            this.room = room;
+            this.port = port;
+            this.user = user;
+            this.session = session;
+        }
+
+        /**
+         * Sessions do not allow concurrent sends; relay and ping share this lock.
+         * A queueing decorator is not used because it would hold on to the
+         * container's payload buffer, which is reused once the handler returns.
+         */
+        void send(WebSocketMessage<?> message) throws IOException {
+            synchronized (session) {
+                if (session.isOpen()) {
+                    session.sendMessage(message);
+                }
+            }
+        }
+
+        void recordRoundTrip(int millis) {
+            if (millis < 0) {
+                return;
+            }
+            // Interarrival jitter estimator from RFC 3550
+            if (lastRoundTrip >= 0) {
+                jitterMillis += (Math.abs(millis - lastRoundTrip) - jitterMillis) / 16;
+                roundTripMillis += (millis - roundTripMillis) / 8;
+            } else {
+                roundTripMillis = millis;
+            }
+            lastRoundTrip = millis;
+        }
+
+        void recordRelay(long nanos) {
+            relayNanos = relayNanos == 0 ? nanos : relayNanos + (nanos - relayNanos) / 64;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.GameOverlayDTO;
+import com.nestgame.entity.User;
+import com.nestgame.repository.GameRatingRepository;
+import com.nestgame.repository.PlayHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-user state of a page of game cards: favorite, own rating and last
+ * played time. Favorites come from the cached id set in {@link UserService};
+ * ratings and history are one query each.
+ */
+@Service
+@RequiredArgsConstructor
+public class OverlayService {
+
+    private final UserService userService;
+    private final GameRatingRepository gameRatingRepository;
+    private final PlayHistoryRepository playHistoryRepository;
+
+    /**
+     * @return one entry per distinct id, in request order
+     */
+    @Transactional(readOnly = true)
+    public List<GameOverlayDTO> getOverlay(User user, List<Long> gameIds) {
+        Set<Long> ids = new LinkedHashSet<>(gameIds);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        long[] favorites = userService.getFavoriteIds(user.getId());
+
+        Map<Long, Integer> ratings = new HashMap<>();
+        for (Object[] row : gameRatingRepository.findRatingsByUserIdAndGameIds(user.getId(), ids)) {
+            ratings.put((Long) row[0], (Integer) row[1]);
+        }
+
+        Map<Long, LocalDateTime> played = new HashMap<>();
+        for (Object[] row : playHistoryRepository.findPlayedAtByUserIdAndGameIds(user.getId(), ids)) {
+            played.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+
+        return ids.stream()
+                .map(id -> new GameOverlayDTO(
+                        id,
+                        Arrays.binarySearch(favorites, id) >= 0,
+                        ratings.get(id),
+                        played.get(id)))
+                .toList();
+    }
+}
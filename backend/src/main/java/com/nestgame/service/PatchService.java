@@ -0,0 +1,163 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.GamePatchDTO;
+import com.nestgame.entity.Game;
+import com.nestgame.entity.GamePatch;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.repository.GamePatchRepository;
+import com.nestgame.repository.GameRepository;
+import com.nestgame.util.DiskCache;
+import com.nestgame.util.RomPatcher;
+import com.nestgame.util.SingleFlight;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Stores IPS/BPS patches per game and produces patched ROMs.
+ *
+ * Patched outputs are cached on disk by (ROM hash, patch hash), so a popular
+ * translation is applied once and then served from the cache.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatchService {
+
+    private static final long MAX_PATCH_BYTES = 16 * 1024 * 1024;
+
+    private final GamePatchRepository gamePatchRepository;
+    private final GameRepository gameRepository;
+    private final RomService romService;
+
+    @Value("${app.roms.patch-dir}")
+    private String patchDir;
+
+    @Value("${app.roms.cache-dir}")
+    private String cacheDir;
+
+    @Value("${app.roms.patched-cache-size:1GB}")
+    private DataSize patchedCacheSize;
+
+    private final SingleFlight<String, Path> builds = new SingleFlight<>();
+
+    private DiskCache patched;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(Path.of(patchDir));
+        patched = new DiskCache(Path.of(cacheDir, "patched"), patchedCacheSize.toBytes());
+    }
+
+    @Transactional(readOnly = true)
+    public List<GamePatchDTO> getPatches(Long gameId) {
+        return gamePatchRepository.findByGameIdOrderByNameAsc(gameId).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    @Transactional
+    public GamePatchDTO addPatch(Long gameId, MultipartFile file, String name, String language, Long sourceCrc32)
+            throws IOException {
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy game với ID: " + gameId));
+
+        if (file.isEmpty() || file.getSize() > MAX_PATCH_BYTES) {
+            throw new BadRequestException("Patch file must be between 1 byte and 16MB");
+        }
+
+        Path upload = Files.createTempFile(Path.of(patchDir), "upload-", ".tmp");
+        try {
+            file.transferTo(upload);
+            RomPatcher.Format format;
+            try {
+                format = RomPatcher.detectFormat(upload);
+            } catch (IOException e) {
+                throw new BadRequestException("Patch must be in IPS or BPS format");
+            }
+            if (format == RomPatcher.Format.BPS) {
+                // BPS carries its own source checksum
+                sourceCrc32 = RomPatcher.readBpsFooter(upload).sourceCrc32();
+            }
+
+            String patchHash = romService.sha256(upload);
+            Files.move(upload, patchFile(patchHash), StandardCopyOption.REPLACE_EXISTING);
+
+            GamePatch patch = gamePatchRepository.save(GamePatch.builder()
+                    .game(game)
+                    .name(name)
+                    .language(language)
+                    .format(format.name())
+                    .patchHash(patchHash)
+                    .sourceCrc32(sourceCrc32)
+                    .sizeBytes(file.getSize())
+                    .build());
+            log.info("Added {} patch '{}' for game '{}'", format, name, game.getName());
+            return toDTO(patch);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /**
+     * The patched ROM image for a game and patch, building and caching it on first use
+     */
+    @Transactional(readOnly = true)
+    public RomService.RomFile getPatchedRom(Long gameId, Long patchId) {
+        GamePatch patch = gamePatchRepository.findByIdAndGameId(patchId, gameId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy patch với ID: " + patchId));
+        Path source = romService.resolveRomImage(patch.getGame());
+        String key = romService.sha256(source) + ":" + patch.getPatchHash();
+
+        Path file = patched.get(key).orElseGet(() -> builds.execute(key, () -> build(key, source, patch)));
+
+        String baseName = patch.getGame().getFileName().replaceFirst("\\.[^.]+$", "");
+        return new RomService.RomFile(file, baseName + " [" + patch.getName() + "].nes");
+    }
+
+    private Path build(String key, Path source, GamePatch patch) {
+        try {
+            if (patch.getSourceCrc32() != null && RomPatcher.crc32(source) != patch.getSourceCrc32()) {
+                throw new BadRequestException("ROM gốc không khớp với patch (sai CRC32)");
+            }
+
+            RomPatcher.Format format = RomPatcher.Format.valueOf(patch.getFormat());
+            Path patchFile = patchFile(patch.getPatchHash());
+            Path result = patched.putFile(key, target -> RomPatcher.apply(format, source, patchFile, target));
+            log.info("Built patched ROM for game {} with patch '{}'", patch.getGame().getId(), patch.getName());
+            return result;
+        } catch (RomPatcher.ChecksumMismatchException e) {
+            throw new BadRequestException(e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path patchFile(String patchHash) {
+        return Path.of(patchDir, patchHash + ".patch");
+    }
+
+    private GamePatchDTO toDTO(GamePatch patch) {
+        return new GamePatchDTO(
+                patch.getId(),
+                patch.getGame().getId(),
+                patch.getName(),
+                patch.getLanguage(),
+                patch.getFormat(),
+                patch.getSizeBytes(),
+                patch.getCreatedAt());
+    }
+}
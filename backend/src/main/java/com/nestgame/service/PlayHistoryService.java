@@ -1,20 +1,26 @@
 package com.nestgame.service;
 
 import com.nestgame.dto.GameDTO;
+import com.nestgame.dto.request.BatchPlayHistoryRequest;
 import com.nestgame.entity.Game;
 import com.nestgame.entity.PlayHistory;
 import com.nestgame.entity.User;
 import com.nestgame.exception.ResourceNotFoundException;
 import com.nestgame.repository.GameRepository;
+import com.nestgame.repository.PlayHistoryBatchRepository;
+import com.nestgame.repository.PlayHistoryBatchRepository.PlayRow;
 import com.nestgame.repository.PlayHistoryRepository;
+import com.nestgame.repository.UserStatsRepository.StatDelta;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -26,7 +32,11 @@ public class PlayHistoryService {
     private static final int MAX_HISTORY_SIZE = 15;
 
     private final PlayHistoryRepository playHistoryRepository;
+    private final PlayHistoryBatchRepository playHistoryBatchRepository;
     private final GameRepository gameRepository;
+    private final GameMapper gameMapper;
+    private final UserStatsService userStatsService;
+    private final UserChangeService userChangeService;
 
     @Transactional
     public void recordPlay(User user, Long gameId) {
@@ -35,6 +45,9 @@ public class PlayHistoryService {
         Game game = gameRepository.findById(gameId)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy game với ID: " + gameId));
 
+        userStatsService.recordPlay(user.getId(), gameId, LocalDateTime.now());
+        userChangeService.record(user.getId(), UserChangeService.HISTORY, gameId, false);
+
         // Check if user already played this game
         Optional<PlayHistory> existingHistory = playHistoryRepository.findByUserAndGame(user, game);
 
@@ -51,7 +64,10 @@ public class PlayHistoryService {
             if (count >= MAX_HISTORY_SIZE) {
                 // Remove oldest record
                 Optional<PlayHistory> oldest = playHistoryRepository.findTopByUserOrderByPlayedAtAsc(user);
-                oldest.ifPresent(playHistoryRepository::delete);
+                oldest.ifPresent(h -> {
+                    playHistoryRepository.delete(h);
+                    userChangeService.record(user.getId(), UserChangeService.HISTORY, h.getGame().getId(), true);
+                });
                 log.info("Removed oldest play history for user '{}'", user.getUsername());
             }
 
@@ -66,6 +82,37 @@ public class PlayHistoryService {
         }
     }
 
+    /**
+     * Merge plays recorded offline (e.g. as a guest) in one pass. Unknown
+     * games and plays older than the stored history are skipped, so a
+     * resent batch changes nothing.
+     */
+    @Transactional
+    public Map<String, Object> recordPlays(User user, List<BatchPlayHistoryRequest.Play> plays) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PlayRow> rows = plays.stream()
+                .map(p -> {
+                    LocalDateTime playedAt = LocalDateTime.ofInstant(p.getPlayedAt(), ZoneId.systemDefault());
+                    return new PlayRow(p.getGameId(), playedAt.isAfter(now) ? now : playedAt);
+                })
+                .toList();
+
+        List<PlayRow> accepted = playHistoryBatchRepository.merge(user.getId(), rows);
+        List<Long> trimmed = playHistoryBatchRepository.trim(user.getId(), MAX_HISTORY_SIZE);
+        userStatsService.recordPlays(accepted.stream()
+                .map(p -> new StatDelta(user.getId(), p.gameId(), 0, 0, p.playedAt()))
+                .toList());
+        userChangeService.record(user.getId(), UserChangeService.HISTORY,
+                accepted.stream().map(PlayRow::gameId).toList(), false);
+        userChangeService.record(user.getId(), UserChangeService.HISTORY, trimmed, true);
+
+        log.info("Merged {} of {} plays into history of user '{}', trimmed {}",
+                accepted.size(), plays.size(), user.getUsername(), trimmed.size());
+        return Map.of(
+                "received", plays.size(),
+                "accepted", accepted.size());
+    }
+
     @Transactional(readOnly = true)
     public List<GameDTO> getUserHistory(User user) {
         log.info("Getting history for userId={}", user.getId());
@@ -73,34 +120,11 @@ public class PlayHistoryService {
         try {
             List<PlayHistory> history = playHistoryRepository.findByUserOrderByPlayedAtDesc(user);
             return history.stream()
-                    .map(h -> convertToGameDTO(h.getGame()))
+                    .map(h -> gameMapper.toDTO(h.getGame()))
                     .collect(Collectors.toList());
         } catch (Exception e) {
             log.error("Error getting user history: {}", e.getMessage());
             return Collections.emptyList();
         }
     }
-
-    private GameDTO convertToGameDTO(Game game) {
-        return GameDTO.builder()
-                .id(game.getId())
-                .name(game.getName())
-                .fileName(game.getFileName())
-                .path(game.getPath())
-                .categoryId(game.getCategory() != null ? game.getCategory().getId() : null)
-                .categoryName(game.getCategory() != null ? game.getCategory().getName() : null)
-                .category(game.getCategory() != null ? game.getCategory().getName() : null)
-                .description(game.getDescription())
-                .rating(game.getRating())
-                .year(game.getYear())
-                .region(game.getRegion())
-                .isFeatured(game.getIsFeatured())
-                .imageUrl(game.getImageUrl())
-                .imageSnap(game.getImageSnap())
-                .imageTitle(game.getImageTitle())
-                .playCount(game.getPlayCount())
-                .createdAt(game.getCreatedAt())
-                .updatedAt(game.getUpdatedAt())
-                .build();
-    }
 }
@@ -0,0 +1,237 @@
+package com.nestgame.service;
+
+import com.nestgame.entity.User;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.repository.GameRepository;
+import com.nestgame.repository.PlaySessionRepository;
+import com.nestgame.repository.PlaySessionRepository.DurationDelta;
+import com.nestgame.repository.PlaySessionRepository.SessionRow;
+import com.nestgame.repository.UserStatsRepository.StatDelta;
+import com.nestgame.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Play-time tracking from emulator heartbeats.
+ *
+ * Heartbeats only touch an in-memory session per (user, game); a timing
+ * wheel ends sessions that stop beating. Ended sessions are queued and a
+ * background flush writes them with one batched insert into play_sessions
+ * and one batched update of play_history.duration_seconds, so database load
+ * follows the number of finished sessions rather than the heartbeat rate.
+ * The same transaction feeds the profile statistics rollups.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlaySessionService {
+
+    private static final int FLUSH_BATCH_SIZE = 1000;
+
+    private final GameRepository gameRepository;
+    private final PlaySessionRepository playSessionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UserStatsService userStatsService;
+
+    private final Map<SessionKey, ActiveSession> active = new ConcurrentHashMap<>();
+    private final Queue<SessionRow> completed = new ConcurrentLinkedQueue<>();
+    private TimingWheel<SessionKey> wheel;
+
+    @Value("${app.sessions.heartbeat-interval:30000}")
+    private long heartbeatInterval;
+
+    @Value("${app.sessions.idle-timeout:90000}")
+    private long idleTimeout;
+
+    @Value("${app.sessions.tick:5000}")
+    private long tick;
+
+    private record SessionKey(long userId, long gameId) {
+    }
+
+    @PostConstruct
+    void init() {
+        wheel = new TimingWheel<>(tick, idleTimeout, System.currentTimeMillis());
+    }
+
+    /**
+     * Record a heartbeat, starting a session if none is running
+     *
+     * @return seconds played in the current session
+     */
+    public Map<String, Object> heartbeat(User user, Long gameId) {
+        SessionKey key = new SessionKey(user.getId(), gameId);
+        if (!active.containsKey(key) && !gameRepository.existsById(gameId)) {
+            throw new ResourceNotFoundException("Không tìm thấy game với ID: " + gameId);
+        }
+
+        long now = System.currentTimeMillis();
+        ActiveSession session = active.compute(key, (k, current) -> {
+            ActiveSession s = current != null ? current : new ActiveSession(now);
+            s.beat(now, maxCountedGap());
+            return s;
+        });
+        wheel.touch(key);
+
+        return Map.of(
+                "sessionSeconds", session.activeMillis / 1000,
+                "heartbeatInterval", heartbeatInterval / 1000);
+    }
+
+    /**
+     * End a session right away, e.g. when the emulator is closed
+     */
+    public void end(User user, Long gameId) {
+        SessionKey key = new SessionKey(user.getId(), gameId);
+        long now = System.currentTimeMillis();
+        active.computeIfPresent(key, (k, session) -> {
+            session.beat(now, maxCountedGap());
+            complete(k, session);
+            return null;
+        });
+        wheel.remove(key);
+    }
+
+    /**
+     * Expire sessions whose heartbeats stopped
+     */
+    @Scheduled(fixedRateString = "${app.sessions.tick:5000}")
+    public void expireIdle() {
+        long now = System.currentTimeMillis();
+        for (SessionKey key : wheel.advance(now)) {
+            active.computeIfPresent(key, (k, session) -> {
+                if (now - session.lastBeat < idleTimeout) {
+                    wheel.touch(k); // a heartbeat raced the wheel
+                    return session;
+                }
+                complete(k, session);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Write finished sessions and roll their time into play history
+     */
+    @Scheduled(fixedDelayString = "${app.sessions.flush-interval:15000}")
+    public void flush() {
+        List<SessionRow> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+        SessionRow row;
+        while ((row = completed.poll()) != null) {
+            batch.add(row);
+            if (batch.size() == FLUSH_BATCH_SIZE) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (SessionKey key : List.copyOf(active.keySet())) {
+            active.computeIfPresent(key, (k, session) -> {
+                complete(k, session);
+                return null;
+            });
+        }
+        flush();
+    }
+
+    public int getActiveSessionCount() {
+        return active.size();
+    }
+
+    private void write(List<SessionRow> batch) {
+        try {
+            playSessionRepository.ensurePartitions(batch);
+            transactionTemplate.executeWithoutResult(status -> persist(batch));
+            log.debug("Flushed {} play sessions", batch.size());
+        } catch (DataAccessException e) {
+            // One bad row (e.g. a game deleted mid-session) must not lose the rest
+            log.warn("Batched session flush failed, retrying one by one: {}", e.getMessage());
+            for (SessionRow single : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(single)));
+                } catch (DataAccessException rowError) {
+                    log.warn("Dropping play session of user {} game {}: {}",
+                            single.userId(), single.gameId(), rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private void persist(List<SessionRow> sessions) {
+        playSessionRepository.insertSessions(sessions);
+
+        Map<SessionKey, Integer> totals = new LinkedHashMap<>();
+        for (SessionRow s : sessions) {
+            totals.merge(new SessionKey(s.userId(), s.gameId()), s.durationSeconds(), Integer::sum);
+        }
+        playSessionRepository.addDurations(totals.entrySet().stream()
+                .map(e -> new DurationDelta(e.getKey().userId(), e.getKey().gameId(), e.getValue()))
+                .toList());
+        userStatsService.recordSessions(sessions.stream()
+                .map(s -> new StatDelta(s.userId(), s.gameId(), 1, s.durationSeconds(), s.startedAt()))
+                .toList());
+    }
+
+    private void complete(SessionKey key, ActiveSession session) {
+        int seconds = (int) (session.activeMillis / 1000);
+        if (seconds == 0) {
+            return; // a single heartbeat carries no play time
+        }
+        completed.add(new SessionRow(key.userId(), key.gameId(), toDateTime(session.startedAt),
+                toDateTime(session.lastBeat), seconds, session.heartbeats));
+    }
+
+    /**
+     * Gaps longer than this (a suspended tab, a dropped request) are not counted as play
+     */
+    private long maxCountedGap() {
+        return heartbeatInterval * 2;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /** Mutated only inside {@code active.compute*}, which serializes access per key. */
+    private static final class ActiveSession {
+        final long startedAt;
+        long lastBeat;
+        long activeMillis;
+        int heartbeats;
+
+        ActiveSession(long now) {
+            this.startedAt = now;
+            this.lastBeat = now;
+        }
+
+        void beat(long now, long maxGap) {
+            activeMillis += Math.min(Math.max(now - lastBeat, 0), maxGap);
+            lastBeat = now;
+            heartbeats++;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.ReplayDTO;
+import com.nestgame.entity.Game;
+import com.nestgame.entity.Replay;
+import com.nestgame.entity.ReplayKeyframe;
+import com.nestgame.entity.SaveState;
+import com.nestgame.entity.User;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.repository.GameRepository;
+import com.nestgame.repository.ReplayKeyframeRepository;
+import com.nestgame.repository.ReplayRepository;
+import com.nestgame.repository.SaveStateRepository;
+import com.nestgame.util.AfterCommit;
+import com.nestgame.util.ReplayCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Input-recording replays.
+ *
+ * Uploads are raw controller bytes (one byte per port per frame) streamed
+ * straight into {@link ReplayCodec}, so nothing proportional to the replay
+ * length is held in memory. Playback can start from any frame: the closest
+ * keyframe with a save state is loaded by the client and input is streamed
+ * from the restart point just before it.
+ *
+ * Keyframe states are copied out of the uploader's save slots into files
+ * owned by the replay. A slot is overwritten by the next save into it, and
+ * only its owner may read it, while a replay is watched by anyone.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReplayService {
+
+    private static final int MAX_PORTS = 2;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_KEYFRAMES = 1000;
+
+    private final ReplayRepository replayRepository;
+    private final ReplayKeyframeRepository keyframeRepository;
+    private final GameRepository gameRepository;
+    private final SaveStateRepository saveStateRepository;
+    private final SaveStateService saveStateService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.replays.dir}")
+    private String storageDir;
+
+    @Value("${app.replays.restart-interval:600}")
+    private int restartInterval;
+
+    @Value("${app.replays.max-frames:5184000}")
+    private long maxFrames;
+
+    @Value("${app.replays.base-url:/api/replays}")
+    private String baseUrl;
+
+    /** Where a playback stream starts; see {@link #openStream}. */
+    public record ReplayStream(Replay replay, long startFrame, long keyframe, String stateUrl, long offset) {
+
+        public long length() {
+            return replay.getSizeBytes() - offset;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ReplayDTO> getGameReplays(Long gameId, int page, int size) {
+        return replayRepository.findByGameIdOrderByCreatedAtDesc(gameId, pageRequest(page, size))
+                .map(replay -> toDTO(replay, null));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ReplayDTO> getUserReplays(User user, int page, int size) {
+        return replayRepository.findByUserIdOrderByCreatedAtDesc(user.getId(), pageRequest(page, size))
+                .map(replay -> toDTO(replay, null));
+    }
+
+    @Transactional(readOnly = true)
+    public ReplayDTO getReplay(Long replayId) {
+        Replay replay = findReplay(replayId);
+        return toDTO(replay, keyframeRepository.findByReplayIdOrderByFrameAsc(replayId));
+    }
+
+    /**
+     * Encode an uploaded input stream and store it as a new replay
+     */
+    public ReplayDTO upload(User user, Long gameId, String title, int ports, InputStream body) throws IOException {
+        if (ports < 1 || ports > MAX_PORTS) {
+            throw new BadRequestException("Số tay cầm phải nằm trong khoảng 1-" + MAX_PORTS);
+        }
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy game với ID: " + gameId));
+
+        Path dir = Path.of(storageDir);
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, "upload", ".tmp");
+        try {
+            ReplayCodec.Encoded encoded;
+            try {
+                encoded = ReplayCodec.encode(body, ports, temp, restartInterval, maxFrames);
+            } catch (IOException e) {
+                throw new BadRequestException("Dữ liệu replay không hợp lệ: " + e.getMessage());
+            }
+            if (encoded.frameCount() == 0) {
+                throw new BadRequestException("Replay không có frame nào");
+            }
+
+            long sizeBytes = Files.size(temp);
+            // The file is moved into place inside the transaction and removed again if it rolls back
+            Replay replay = transactionTemplate.execute(status -> {
+                Replay saved = replayRepository.save(Replay.builder()
+                        .user(user)
+                        .game(game)
+                        .title(title)
+                        .ports((short) ports)
+                        .frameCount(encoded.frameCount())
+                        .sizeBytes(sizeBytes)
+                        .seekIndex(encoded.seekIndex())
+                        .build());
+                Path file = replayFile(saved.getId());
+                AfterCommit.run(() -> { }, () -> deleteReplayFile(saved.getId()));
+                try {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return saved;
+            });
+
+            log.info("Stored replay {} for user {} game {}: {} frames in {} bytes",
+                    replay.getId(), user.getId(), gameId, replay.getFrameCount(), replay.getSizeBytes());
+            return toDTO(replay, List.of());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Set the keyframes of a replay, copying the given save states into it.
+     * Existing keyframes and their states are replaced.
+     */
+    @Transactional
+    public ReplayDTO setKeyframes(User user, Long replayId, List<ReplayDTO.Keyframe> keyframes) {
+        Replay replay = findOwnedReplay(user, replayId);
+        if (keyframes.size() > MAX_KEYFRAMES) {
+            throw new BadRequestException("Tối đa " + MAX_KEYFRAMES + " keyframe cho mỗi replay");
+        }
+
+        Map<Long, SaveState> states = new TreeMap<>();
+        for (ReplayDTO.Keyframe keyframe : keyframes) {
+            if (keyframe.frame() == null || keyframe.frame() < 0 || keyframe.frame() >= replay.getFrameCount()) {
+                throw new BadRequestException("Frame của keyframe nằm ngoài replay");
+            }
+            SaveState state = null;
+            if (keyframe.saveStateId() != null) {
+                state = saveStateRepository.findById(keyframe.saveStateId())
+                        .filter(s -> s.getUser().getId().equals(user.getId()))
+                        .filter(s -> s.getGame().getId().equals(replay.getGame().getId()))
+                        .orElseThrow(() -> new BadRequestException(
+                                "Save state không hợp lệ: " + keyframe.saveStateId()));
+            }
+            states.put(keyframe.frame(), state);
+        }
+
+        List<Long> replaced = keyframeRepository.findByReplayIdOrderByFrameAsc(replayId).stream()
+                .map(ReplayKeyframe::getId)
+                .toList();
+        keyframeRepository.deleteByReplayId(replayId);
+        keyframeRepository.flush();
+
+        List<ReplayKeyframe> saved = new ArrayList<>();
+        List<Long> written = new ArrayList<>();
+        // Old files go once the new keyframes are committed, new ones if they never are
+        AfterCommit.run(() -> deleteStateFiles(replaced), () -> deleteStateFiles(written));
+        states.forEach((frame, state) -> {
+            ReplayKeyframe keyframe = keyframeRepository.save(ReplayKeyframe.builder()
+                    .replay(replay)
+                    .frame(frame)
+                    .build());
+            if (state != null) {
+                written.add(keyframe.getId());
+                keyframe.setStateSize(copyState(user, state, stateFile(keyframe.getId())));
+            }
+            saved.add(keyframe);
+        });
+        return toDTO(replay, saved);
+    }
+
+    @Transactional
+    public void deleteReplay(User user, Long replayId) {
+        Replay replay = findOwnedReplay(user, replayId);
+        List<Long> keyframes = keyframeRepository.findByReplayIdOrderByFrameAsc(replayId).stream()
+                .map(ReplayKeyframe::getId)
+                .toList();
+        replayRepository.delete(replay);
+        AfterCommit.run(() -> {
+            deleteReplayFile(replayId);
+            deleteStateFiles(keyframes);
+        });
+    }
+
+    /**
+     * The keyframe of a replay whose copied state is to be downloaded
+     */
+    @Transactional(readOnly = true)
+    public ReplayKeyframe getKeyframeState(Long replayId, Long frame) {
+        findReplay(replayId);
+        return keyframeRepository.findByReplayIdAndFrame(replayId, frame)
+                .filter(keyframe -> keyframe.getStateSize() != null)
+                .orElseThrow(() -> new ResourceNotFoundException("Replay không có save state ở frame " + frame));
+    }
+
+    /**
+     * Stream a keyframe's copied state, decompressing it
+     */
+    public void writeKeyframeState(ReplayKeyframe keyframe, OutputStream out) throws IOException {
+        try (InputStream in = new InflaterInputStream(Files.newInputStream(stateFile(keyframe.getId())))) {
+            in.transferTo(out);
+        }
+    }
+
+    /**
+     * Resolve where playback of {@code fromFrame} has to start. Without a
+     * {@code fromFrame} the whole file, header included, is returned.
+     */
+    @Transactional(readOnly = true)
+    public ReplayStream openStream(Long replayId, Long fromFrame) {
+        Replay replay = findReplay(replayId);
+        if (fromFrame == null) {
+            return new ReplayStream(replay, 0, 0, null, 0);
+        }
+        if (fromFrame < 0 || fromFrame >= replay.getFrameCount()) {
+            throw new BadRequestException("fromFrame nằm ngoài replay (0-" + (replay.getFrameCount() - 1) + ")");
+        }
+
+        // Without a save state the emulator has to run from power-on
+        ReplayKeyframe keyframe = keyframeRepository
+                .findFirstByReplayIdAndFrameLessThanEqualAndStateSizeIsNotNullOrderByFrameDesc(replayId, fromFrame)
+                .orElse(null);
+        long keyframeFrame = keyframe != null ? keyframe.getFrame() : 0;
+
+        ReplayCodec.RestartPoint point;
+        try {
+            point = ReplayCodec.restartPointFor(ReplayCodec.parseSeekIndex(replay.getSeekIndex()), keyframeFrame);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt seek index for replay " + replayId, e);
+        }
+        return new ReplayStream(replay, point.frame(), keyframeFrame,
+                keyframe != null ? stateUrl(replayId, keyframeFrame) : null, point.offset());
+    }
+
+    /**
+     * Copy the encoded records of a stream, starting at its restart point
+     */
+    public void writeEncoded(ReplayStream stream, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(replayFile(stream.replay().getId()))) {
+            channel.transferTo(stream.offset(), stream.length(), Channels.newChannel(out));
+        }
+    }
+
+    /**
+     * Decode a stream into raw frames starting exactly at its keyframe
+     */
+    public void writeRaw(ReplayStream stream, OutputStream out) throws IOException {
+        long offset = Math.max(stream.offset(), ReplayCodec.HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(replayFile(stream.replay().getId()))) {
+            channel.position(offset);
+            ReplayCodec.decode(Channels.newInputStream(channel), stream.replay().getPorts(),
+                    stream.keyframe() - stream.startFrame(), out);
+        }
+    }
+
+    private Replay findReplay(Long replayId) {
+        return replayRepository.findById(replayId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy replay với ID: " + replayId));
+    }
+
+    private Replay findOwnedReplay(User user, Long replayId) {
+        Replay replay = findReplay(replayId);
+        if (!replay.getUser().getId().equals(user.getId())) {
+            throw new ResourceNotFoundException("Không tìm thấy replay với ID: " + replayId);
+        }
+        return replay;
+    }
+
+    private Path replayFile(Long replayId) {
+        return Path.of(storageDir, replayId + ".ngrp");
+    }
+
+    private Path stateFile(Long keyframeId) {
+        return Path.of(storageDir, "keyframes", keyframeId + ".state");
+    }
+
+    private String stateUrl(Long replayId, long frame) {
+        return baseUrl + "/" + replayId + "/keyframes/" + frame + "/state";
+    }
+
+    /**
+     * Copy a save state into {@code file}, compressed
+     *
+     * @return its uncompressed size
+     */
+    private long copyState(User user, SaveState state, Path file) {
+        try {
+            Files.createDirectories(file.getParent());
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            long[] size = new long[1];
+            try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(file), deflater)) {
+                OutputStream counting = new FilterOutputStream(out) {
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        size[0] += len;
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        size[0]++;
+                    }
+                };
+                saveStateService.writeState(user, state.getGame().getId(), state.getSlot(), counting);
+            } finally {
+                deflater.end();
+            }
+            return size[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteReplayFile(Long replayId) {
+        try {
+            Files.deleteIfExists(replayFile(replayId));
+        } catch (IOException e) {
+            log.warn("Failed to delete replay file {}: {}", replayId, e.getMessage());
+        }
+    }
+
+    private void deleteStateFiles(List<Long> keyframeIds) {
+        for (Long keyframeId : keyframeIds) {
+            try {
+                Files.deleteIfExists(stateFile(keyframeId));
+            } catch (IOException e) {
+                log.warn("Failed to delete keyframe state {}: {}", keyframeId, e.getMessage());
+            }
+        }
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    private ReplayDTO toDTO(Replay replay, List<ReplayKeyframe> keyframes) {
+        return new ReplayDTO(
+                replay.getId(),
+                replay.getGame().getId(),
+                replay.getGame().getName(),
+                replay.getUser().getId(),
+                replay.getUser().getUsername(),
+                replay.getTitle(),
+                replay.getPorts().intValue(),
+                replay.getFrameCount(),
+                replay.getSizeBytes(),
+                keyframes == null ? null : keyframes.stream()
+                        .map(k -> new ReplayDTO.Keyframe(k.getFrame(), null,
+                                k.getStateSize() != null ? stateUrl(replay.getId(), k.getFrame()) : null))
+                        .toList(),
+                replay.getCreatedAt());
+    }
+}
@@ -0,0 +1,182 @@
+package com.nestgame.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nestgame.entity.Game;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.repository.GameRepository;
+import com.nestgame.util.DiskCache;
+import com.nestgame.util.SingleFlight;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Locates ROM files in the local ROM library.
+ *
+ * The library has the same layout the frontend uses: ROMs directly under
+ * {@code app.roms.library-dir} or one folder below it. Zipped ROMs are
+ * extracted once into a disk cache when the raw image is needed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RomService {
+
+    /** A ROM ready to download, with the file name the client should save it as. */
+    public record RomFile(Path path, String downloadName) {
+    }
+
+    private final GameRepository gameRepository;
+
+    @Value("${app.roms.library-dir}")
+    private String libraryDir;
+
+    @Value("${app.roms.cache-dir}")
+    private String cacheDir;
+
+    @Value("${app.roms.extracted-cache-size:512MB}")
+    private DataSize extractedCacheSize;
+
+    private final Cache<String, String> hashes = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    private final SingleFlight<String, Path> extractions = new SingleFlight<>();
+
+    private Path library;
+    private DiskCache extracted;
+
+    @PostConstruct
+    public void init() throws IOException {
+        library = Path.of(libraryDir).toAbsolutePath().normalize();
+        extracted = new DiskCache(Path.of(cacheDir, "extracted"), extractedCacheSize.toBytes());
+    }
+
+    @Transactional(readOnly = true)
+    public RomFile getRom(Long gameId) {
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy game với ID: " + gameId));
+        Path rom = resolveRom(game);
+        return new RomFile(rom, rom.getFileName().toString());
+    }
+
+    /**
+     * The ROM file as stored in the library (.nes or .zip)
+     */
+    public Path resolveRom(Game game) {
+        return findInLibrary(game.getFileName())
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy ROM cho game: " + game.getName()));
+    }
+
+    /**
+     * The raw .nes image of a game, extracted from its zip if necessary
+     */
+    public Path resolveRomImage(Game game) {
+        Path rom = resolveRom(game);
+        if (!rom.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".zip")) {
+            return rom;
+        }
+
+        try {
+            String key = rom + "@" + Files.getLastModifiedTime(rom).toMillis();
+            return extracted.get(key).orElseGet(() -> extractions.execute(key, () -> extract(rom, key)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * SHA-256 of a file, cached by path and modification time
+     */
+    public String sha256(Path file) {
+        try {
+            String key = file + "@" + Files.getLastModifiedTime(file).toMillis();
+            return hashes.get(key, k -> hash(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path extract(Path zip, String key) {
+        try {
+            return extracted.put(key, out -> {
+                try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+                    ZipEntry entry;
+                    while ((entry = in.getNextEntry()) != null) {
+                        if (!entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(".nes")) {
+                            in.transferTo(out);
+                            return;
+                        }
+                    }
+                }
+                throw new ResourceNotFoundException("File zip không chứa ROM .nes: " + zip.getFileName());
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Optional<Path> findInLibrary(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return Optional.empty();
+        }
+
+        Path direct = inLibrary(library.resolve(fileName));
+        if (direct != null && Files.isRegularFile(direct)) {
+            return Optional.of(direct);
+        }
+
+        try (DirectoryStream<Path> folders = Files.newDirectoryStream(library, Files::isDirectory)) {
+            for (Path folder : folders) {
+                Path candidate = inLibrary(folder.resolve(fileName));
+                if (candidate != null && Files.isRegularFile(candidate)) {
+                    return Optional.of(candidate);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to scan ROM library {}: {}", library, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    private Path inLibrary(Path candidate) {
+        // Guard against path traversal through crafted file names
+        Path normalized = candidate.toAbsolutePath().normalize();
+        return normalized.startsWith(library) ? normalized : null;
+    }
+
+    private String hash(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
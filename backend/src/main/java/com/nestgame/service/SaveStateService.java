@@ -0,0 +1,354 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.SaveStateDTO;
+import com.nestgame.entity.Game;
+import com.nestgame.entity.SaveState;
+import com.nestgame.entity.User;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.repository.GameRepository;
+import com.nestgame.repository.SaveChunkRepository;
+import com.nestgame.repository.SaveStateRepository;
+import com.nestgame.util.AfterCommit;
+import com.nestgame.util.ContentDefinedChunker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Cloud save states with content-defined chunking.
+ *
+ * Uploads are streamed through a {@link ContentDefinedChunker}. Successive
+ * states of the same game share most of their memory, so most chunks already
+ * exist and only the changed ones are compressed and written. Chunks are
+ * stored per user and reference counted; quotas apply to the compressed
+ * bytes a user actually occupies.
+ *
+ * An upload claims each chunk, taking a reference, before it relies on the
+ * chunk's file, so concurrent uploads and deletes never remove a file that
+ * is in use. Files are only deleted along with a chunk whose count reached
+ * zero, after the transaction that dropped the count has committed; see
+ * {@link SaveChunkRepository}. Replacing or deleting a slot locks its row,
+ * so the old state's references are dropped exactly once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SaveStateService {
+
+    private static final int HASH_BYTES = 32;
+    private static final int MIN_CHUNK = 1024;
+    private static final int AVG_CHUNK = 4096;
+    private static final int MAX_CHUNK = 16384;
+    private static final int MAX_SLOT = 99;
+    /** Chunks claimed per round trip; at most this many chunks are held in memory. */
+    private static final int CLAIM_BATCH = 64;
+
+    private final SaveStateRepository saveStateRepository;
+    private final SaveChunkRepository saveChunkRepository;
+    private final GameRepository gameRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.save-states.dir}")
+    private String storageDir;
+
+    @Value("${app.save-states.quota-per-user:50MB}")
+    private DataSize quotaPerUser;
+
+    @Value("${app.save-states.max-state-size:8MB}")
+    private DataSize maxStateSize;
+
+    @Transactional(readOnly = true)
+    public List<SaveStateDTO> getStates(User user, Long gameId) {
+        return saveStateRepository.findByUserIdAndGameIdOrderBySlotAsc(user.getId(), gameId).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public Map<String, Long> getUsage(User user) {
+        return Map.of(
+                "usedBytes", saveChunkRepository.getUsedBytes(user.getId()),
+                "quotaBytes", quotaPerUser.toBytes());
+    }
+
+    /**
+     * Store a save state in a slot, replacing whatever was there
+     */
+    public SaveStateDTO saveState(User user, Long gameId, int slot, InputStream body) throws IOException {
+        validateSlot(slot);
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy game với ID: " + gameId));
+
+        // Replacing a slot frees the chunks only its old state uses
+        Set<String> replaced = saveStateRepository.findByUserIdAndGameIdAndSlot(user.getId(), gameId, slot)
+                .map(state -> distinctHashes(state.getChunkHashes()))
+                .orElse(Set.of());
+        long used = saveChunkRepository.getUsedBytes(user.getId());
+        long available = quotaPerUser.toBytes() - used + saveChunkRepository.getUnsharedBytes(user.getId(), replaced);
+
+        ContentDefinedChunker chunker = new ContentDefinedChunker(body, MIN_CHUNK, AVG_CHUNK, MAX_CHUNK);
+        byte[] chunk = new byte[chunker.maxChunkSize()];
+        ByteArrayOutputStream hashList = new ByteArrayOutputStream();
+        Set<String> claimed = new LinkedHashSet<>();
+        Map<String, byte[]> pending = new LinkedHashMap<>();
+        long totalSize = 0;
+        long newBytes = 0;
+        int chunkCount = 0;
+
+        try {
+            int length;
+            while ((length = chunker.next(chunk)) != -1) {
+                totalSize += length;
+                if (totalSize > maxStateSize.toBytes()) {
+                    throw new BadRequestException("Save state vượt quá kích thước cho phép (" + maxStateSize + ")");
+                }
+
+                byte[] digest = sha256(chunk, length);
+                hashList.write(digest);
+                chunkCount++;
+
+                String hash = HexFormat.of().formatHex(digest);
+                if (!claimed.contains(hash) && !pending.containsKey(hash)) {
+                    pending.put(hash, Arrays.copyOf(chunk, length));
+                }
+                if (pending.size() == CLAIM_BATCH) {
+                    newBytes += claimAndWrite(user.getId(), pending, claimed);
+                }
+                if (newBytes > available) {
+                    throw new BadRequestException("Đã vượt quá dung lượng lưu trữ save state");
+                }
+            }
+            newBytes += claimAndWrite(user.getId(), pending, claimed);
+
+            // Our claims now hold the chunks the new state shares with the old one, so only the rest is freed
+            long freed = saveChunkRepository.getUnsharedBytes(user.getId(), replaced);
+            if (used + newBytes - freed > quotaPerUser.toBytes()) {
+                throw new BadRequestException("Đã vượt quá dung lượng lưu trữ save state");
+            }
+
+            SaveState state = commit(user, game, slot, totalSize, chunkCount, hashList.toByteArray());
+            log.info("Saved state for user {} game {} slot {}: {} bytes, {} chunks, {} new bytes stored",
+                    user.getId(), gameId, slot, totalSize, chunkCount, newBytes);
+            return toDTO(state);
+        } catch (IOException | RuntimeException e) {
+            // Give back our references; only chunks nobody else references lose their files
+            transactionTemplate.executeWithoutResult(status ->
+                    releaseChunks(user.getId(), saveChunkRepository.removeReferences(user.getId(), claimed)));
+            throw e;
+        }
+    }
+
+    /**
+     * Claim the pending chunks and write the files that do not exist yet
+     *
+     * @return compressed bytes of the chunks this claim created
+     */
+    private long claimAndWrite(Long userId, Map<String, byte[]> pending, Set<String> claimed) throws IOException {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<String, SaveChunkRepository.Claim> claims = saveChunkRepository.claim(userId, pending.keySet());
+        claimed.addAll(pending.keySet());
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        long created = 0;
+        for (Map.Entry<String, byte[]> entry : pending.entrySet()) {
+            SaveChunkRepository.Claim claim = claims.get(entry.getKey());
+            Path file = chunkFile(userId, entry.getKey());
+            // Also when the chunk existed: its creator may not have written it yet, or failed to
+            int stored = Files.exists(file) ? (int) Files.size(file) : writeChunk(file, entry.getValue());
+            if (stored != claim.storedSize()) {
+                sizes.put(entry.getKey(), stored);
+            }
+            if (claim.created()) {
+                created += stored;
+            }
+        }
+        if (!sizes.isEmpty()) {
+            saveChunkRepository.setStoredSizes(userId, sizes);
+        }
+        pending.clear();
+        return created;
+    }
+
+    /**
+     * Stream a save state back, decompressing chunk by chunk
+     */
+    @Transactional(readOnly = true)
+    public void writeState(User user, Long gameId, int slot, OutputStream out) throws IOException {
+        SaveState state = findState(user, gameId, slot);
+        byte[] hashes = state.getChunkHashes();
+        for (int offset = 0; offset < hashes.length; offset += HASH_BYTES) {
+            String hash = HexFormat.of().formatHex(hashes, offset, offset + HASH_BYTES);
+            try (InputStream in = new InflaterInputStream(Files.newInputStream(chunkFile(user.getId(), hash)))) {
+                in.transferTo(out);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long getStateSize(User user, Long gameId, int slot) {
+        return findState(user, gameId, slot).getSizeBytes();
+    }
+
+    public void deleteState(User user, Long gameId, int slot) {
+        transactionTemplate.executeWithoutResult(status -> {
+            SaveState state = saveStateRepository.findWithLockByUserIdAndGameIdAndSlot(user.getId(), gameId, slot)
+                    .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy save state ở slot " + slot));
+            saveStateRepository.delete(state);
+            releaseChunks(user.getId(),
+                    saveChunkRepository.removeReferences(user.getId(), distinctHashes(state.getChunkHashes())));
+        });
+    }
+
+    /**
+     * Point the slot at the new chunks, which the upload has already claimed
+     */
+    private SaveState commit(User user, Game game, int slot, long totalSize, int chunkCount, byte[] hashes) {
+        try {
+            return transactionTemplate.execute(status -> replaceSlot(user, game, slot, totalSize, chunkCount, hashes));
+        } catch (DataIntegrityViolationException e) {
+            // Another upload created the slot first; the retry finds and locks its row
+            return transactionTemplate.execute(status -> replaceSlot(user, game, slot, totalSize, chunkCount, hashes));
+        }
+    }
+
+    private SaveState replaceSlot(User user, Game game, int slot, long totalSize, int chunkCount, byte[] hashes) {
+        SaveState state = saveStateRepository.findWithLockByUserIdAndGameIdAndSlot(user.getId(), game.getId(), slot)
+                .orElse(null);
+        if (state != null) {
+            releaseChunks(user.getId(), saveChunkRepository.removeReferences(user.getId(),
+                    distinctHashes(state.getChunkHashes())));
+        } else {
+            state = SaveState.builder().user(user).game(game).slot(slot).build();
+        }
+        state.setSizeBytes(totalSize);
+        state.setChunkCount(chunkCount);
+        state.setChunkHashes(hashes);
+        state.setCreatedAt(LocalDateTime.now());
+        // Flushed here so a concurrent insert of the same slot fails inside the transaction
+        return saveStateRepository.saveAndFlush(state);
+    }
+
+    private SaveState findState(User user, Long gameId, int slot) {
+        return saveStateRepository.findByUserIdAndGameIdAndSlot(user.getId(), gameId, slot)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy save state ở slot " + slot));
+    }
+
+    private int writeChunk(Path file, byte[] chunk) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(temp), deflater)) {
+                out.write(chunk);
+            } finally {
+                deflater.end();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return (int) Files.size(file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Delete the chunks that lost their last reference once the transaction
+     * that dropped it has committed. A rollback leaves them referenced, so
+     * their files are kept.
+     */
+    private void releaseChunks(Long userId, List<String> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            try {
+                // A new transaction: the committed one's connection is still bound here
+                TransactionTemplate purge = new TransactionTemplate(transactionTemplate.getTransactionManager());
+                purge.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                purge.executeWithoutResult(status ->
+                        deleteChunkFiles(userId, saveChunkRepository.deleteUnreferenced(userId, hashes)));
+            } catch (RuntimeException e) {
+                // The rows stay at zero references; a later claim revives them or they are just not counted
+                log.warn("Failed to delete unreferenced chunks for user {}: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Must run in the transaction that deleted the chunks' rows
+     */
+    private void deleteChunkFiles(Long userId, List<String> hashes) {
+        for (String hash : hashes) {
+            try {
+                Files.deleteIfExists(chunkFile(userId, hash));
+            } catch (IOException e) {
+                log.warn("Failed to delete chunk {} for user {}: {}", hash, userId, e.getMessage());
+            }
+        }
+    }
+
+    private Set<String> distinctHashes(byte[] hashes) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int offset = 0; offset < hashes.length; offset += HASH_BYTES) {
+            result.add(HexFormat.of().formatHex(hashes, offset, offset + HASH_BYTES));
+        }
+        return result;
+    }
+
+    private Path chunkFile(Long userId, String hash) {
+        return Path.of(storageDir, String.valueOf(userId), hash.substring(0, 2), hash);
+    }
+
+    private void validateSlot(int slot) {
+        if (slot < 0 || slot > MAX_SLOT) {
+            throw new BadRequestException("Slot phải nằm trong khoảng 0-" + MAX_SLOT);
+        }
+    }
+
+    private static byte[] sha256(byte[] data, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data, 0, length);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private SaveStateDTO toDTO(SaveState state) {
+        return new SaveStateDTO(
+                state.getId(),
+                state.getGame().getId(),
+                state.getSlot(),
+                state.getSizeBytes(),
+                state.getCreatedAt());
+    }
+}
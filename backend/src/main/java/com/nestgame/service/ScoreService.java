@@ -0,0 +1,264 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.ScoreBoardDTO;
+import com.nestgame.dto.ScoreEntryDTO;
+import com.nestgame.entity.User;
+import com.nestgame.exception.BadRequestException;
+import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.exception.ServiceUnavailableException;
+import com.nestgame.repository.GameRepository;
+import com.nestgame.repository.GameScoreRepository;
+import com.nestgame.repository.UserRepository;
+import com.nestgame.util.OrderStatisticTree;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-game high-score boards.
+ *
+ * Each board keeps every user's best score in an {@link OrderStatisticTree},
+ * so "rank of user" and "entries k..k+n" are O(log n) instead of a
+ * {@code COUNT(*)} over the scores table. The database stays the source of
+ * truth; boards are rebuilt from it at startup. The daily board only holds
+ * today's scores and starts empty when the date changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScoreService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_WINDOW = 50;
+
+    /** Higher score first; on a tie whoever got there first. */
+    private static final Comparator<ScoreEntry> RANKING = Comparator
+            .comparingLong(ScoreEntry::score).reversed()
+            .thenComparing(ScoreEntry::achievedAt)
+            .thenComparingLong(ScoreEntry::userId);
+
+    private final GameScoreRepository gameScoreRepository;
+    private final GameRepository gameRepository;
+    private final UserRepository userRepository;
+
+    private final Map<Long, Board> allTime = new ConcurrentHashMap<>();
+    private volatile DailyBoards daily = new DailyBoards(LocalDate.now());
+    private volatile boolean loaded;
+
+    public enum BoardType {
+        ALL, DAILY;
+
+        public static BoardType parse(String value) {
+            for (BoardType type : values()) {
+                if (type.name().equalsIgnoreCase(value)) {
+                    return type;
+                }
+            }
+            throw new BadRequestException("Bảng xếp hạng không hợp lệ: " + value + " (all, daily)");
+        }
+    }
+
+    /**
+     * Rebuild all boards from the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        gameScoreRepository.forEachBest((gameId, userId, score, achievedAt) ->
+                board(allTime, gameId).offer(new ScoreEntry(userId, score, achievedAt)));
+
+        DailyBoards today = currentDaily();
+        gameScoreRepository.forEachOnDate(today.date, (gameId, userId, score, achievedAt) ->
+                board(today.boards, gameId).offer(new ScoreEntry(userId, score, achievedAt)));
+
+        loaded = true;
+        log.info("Loaded score boards for {} games in {} ms", allTime.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Submit a score; only improvements of the user's best are kept
+     */
+    public Map<String, Object> submit(User user, Long gameId, long score) {
+        if (!gameRepository.existsById(gameId)) {
+            throw new ResourceNotFoundException("Không tìm thấy game với ID: " + gameId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        DailyBoards today = currentDaily();
+        ScoreEntry entry = new ScoreEntry(user.getId(), score, now);
+
+        boolean stored = gameScoreRepository.submit(user.getId(), gameId, today.date, score, now);
+        boolean dailyBest = stored && board(today.boards, gameId).offer(entry);
+        boolean personalBest = stored && board(allTime, gameId).offer(entry);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("score", score);
+        result.put("personalBest", personalBest);
+        result.put("dailyBest", dailyBest);
+        result.put("allTime", getRank(user, gameId, BoardType.ALL, 0));
+        result.put("daily", getRank(user, gameId, BoardType.DAILY, 0));
+        return result;
+    }
+
+    /**
+     * Top of a board, one page at a time
+     */
+    public ScoreBoardDTO getBoard(Long gameId, BoardType type, int page, int size) {
+        Board board = findBoard(gameId, type);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int from = Math.max(page, 0) * pageSize;
+
+        List<ScoreEntry> entries;
+        int total;
+        board.lock.readLock().lock();
+        try {
+            total = board.tree.size();
+            entries = board.slice(from, Math.min(from + pageSize, total));
+        } finally {
+            board.lock.readLock().unlock();
+        }
+        return new ScoreBoardDTO(gameId, type.name().toLowerCase(), total, null, null, toDTOs(entries, from));
+    }
+
+    /**
+     * The user's rank with {@code window} entries above and below
+     */
+    public ScoreBoardDTO getRank(User user, Long gameId, BoardType type, int window) {
+        Board board = findBoard(gameId, type);
+        int around = Math.min(Math.max(window, 0), MAX_WINDOW);
+
+        int total;
+        ScoreEntry mine;
+        int index = 0;
+        int from = 0;
+        List<ScoreEntry> entries = List.of();
+        board.lock.readLock().lock();
+        try {
+            total = board.tree.size();
+            mine = board.byUser.get(user.getId());
+            if (mine != null) {
+                index = board.tree.rank(mine);
+                from = Math.max(index - around, 0);
+                entries = board.slice(from, Math.min(index + around + 1, total));
+            }
+        } finally {
+            board.lock.readLock().unlock();
+        }
+
+        String name = type.name().toLowerCase();
+        if (mine == null) {
+            return new ScoreBoardDTO(gameId, name, total, null, null, List.of());
+        }
+        return new ScoreBoardDTO(gameId, name, total, index + 1, mine.score(), toDTOs(entries, from));
+    }
+
+    private Board findBoard(Long gameId, BoardType type) {
+        if (!loaded) {
+            throw new ServiceUnavailableException("Bảng xếp hạng đang được tải, vui lòng thử lại sau");
+        }
+        Map<Long, Board> boards = type == BoardType.DAILY ? currentDaily().boards : allTime;
+        Board board = boards.get(gameId);
+        return board != null ? board : Board.EMPTY;
+    }
+
+    private DailyBoards currentDaily() {
+        DailyBoards current = daily;
+        LocalDate today = LocalDate.now();
+        if (!current.date.equals(today)) {
+            synchronized (this) {
+                if (!daily.date.equals(today)) {
+                    daily = new DailyBoards(today);
+                }
+                current = daily;
+            }
+        }
+        return current;
+    }
+
+    private static Board board(Map<Long, Board> boards, Long gameId) {
+        return boards.computeIfAbsent(gameId, id -> new Board());
+    }
+
+    private List<ScoreEntryDTO> toDTOs(List<ScoreEntry> entries, int firstIndex) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, User> users = new HashMap<>();
+        userRepository.findAllById(entries.stream().map(ScoreEntry::userId).toList())
+                .forEach(u -> users.put(u.getId(), u));
+
+        List<ScoreEntryDTO> result = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            ScoreEntry entry = entries.get(i);
+            User user = users.get(entry.userId());
+            result.add(new ScoreEntryDTO(
+                    firstIndex + i + 1,
+                    entry.userId(),
+                    user != null ? user.getUsername() : null,
+                    user != null ? user.getAvatarUrl() : null,
+                    entry.score(),
+                    entry.achievedAt()));
+        }
+        return result;
+    }
+
+    private record ScoreEntry(long userId, long score, LocalDateTime achievedAt) {
+    }
+
+    private record DailyBoards(LocalDate date, Map<Long, Board> boards) {
+        DailyBoards(LocalDate date) {
+            this(date, new ConcurrentHashMap<>());
+        }
+    }
+
+    private static final class Board {
+        static final Board EMPTY = new Board();
+
+        final OrderStatisticTree<ScoreEntry> tree = new OrderStatisticTree<>(RANKING);
+        final Map<Long, ScoreEntry> byUser = new HashMap<>();
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * Keep {@code entry} if it beats the user's current best
+         */
+        boolean offer(ScoreEntry entry) {
+            lock.writeLock().lock();
+            try {
+                ScoreEntry current = byUser.get(entry.userId());
+                if (current != null) {
+                    if (current.score() >= entry.score()) {
+                        return false;
+                    }
+                    tree.remove(current);
+                }
+                tree.add(entry);
+                byUser.put(entry.userId(), entry);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /** Caller holds the read lock. */
+        List<ScoreEntry> slice(int from, int to) {
+            List<ScoreEntry> result = new ArrayList<>(Math.max(to - from, 0));
+            for (int i = from; i < to; i++) {
+                result.add(tree.select(i));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.nestgame.service;
+
+import com.nestgame.entity.User;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans live input out to spectators.
+ *
+ * Frames published by a netplay room are appended to a batch buffer; each
+ * full batch is copied once into a shared array and offered to every
+ * subscriber's bounded queue. Queues are drained by a small shared executor,
+ * so a stream costs no thread per viewer and the publisher never blocks.
+ * A viewer whose queue overflows is resynchronized: its queue is dropped and
+ * it is sent the latest keyframe plus the batches recorded since.
+ *
+ * That history is bounded per room and across all rooms. A room whose
+ * history would exceed either limit drops it; its late joiners wait for the
+ * next keyframe.
+ *
+ * Keyframes reference a cloud save state of the publishing player; viewers
+ * load it through {@code GET /netplay/rooms/{id}/keyframe} and apply the input
+ * that follows. A stream without a keyframe yet is replayed from power-on.
+ */
+@Service
+@Slf4j
+public class SpectatorService {
+
+    public static final byte TYPE_KEYFRAME = 4;
+    private static final String SUBSCRIBER_ATTRIBUTE = "spectator.subscriber";
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final ExecutorService spectatorExecutor;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicLong totalHistoryBytes = new AtomicLong();
+
+    @Value("${app.spectators.batch-frames:8}")
+    private int batchFrames;
+
+    @Value("${app.spectators.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.spectators.history-limit:262144}")
+    private int historyLimit;
+
+    @Value("${app.spectators.total-history-limit:268435456}")
+    private long totalHistoryLimit;
+
+    @Value("${app.spectators.max-per-room:5000}")
+    private int maxPerRoom;
+
+    @Value("${app.spectators.send-timeout:2000}")
+    private long sendTimeout;
+
+    public SpectatorService(@Qualifier("spectatorExecutor") ExecutorService spectatorExecutor) {
+        this.spectatorExecutor = spectatorExecutor;
+    }
+
+    /** Keyframe of a stream: save state {@code slot} of {@code owner}, taken at {@code frame}. */
+    public record Keyframe(User owner, Long gameId, int slot, long frame) {
+    }
+
+    public void openChannel(long roomId, int frameSize) {
+        channels.put(roomId, new Channel(roomId, frameSize * batchFrames));
+    }
+
+    public void closeChannel(long roomId) {
+        Channel channel = channels.remove(roomId);
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            channel.flush();
+            channel.dropHistory(false);
+        }
+        for (Subscriber subscriber : channel.subscribers) {
+            subscriber.closeAfterDrain = true;
+            subscriber.schedule();
+        }
+    }
+
+    /**
+     * Append one frame to the stream. The frame is copied, so the caller may
+     * reuse its buffer.
+     */
+    public void publish(long roomId, ByteBuffer frame) {
+        Channel channel = channels.get(roomId);
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            int length = frame.remaining();
+            frame.get(frame.position(), channel.buffer, channel.length, length);
+            channel.length += length;
+            if (channel.length + length > channel.buffer.length) {
+                channel.flush();
+            }
+        }
+    }
+
+    /**
+     * Start a new keyframe. History before it is discarded and viewers
+     * waiting for a sync point can join from here.
+     */
+    public void keyframe(long roomId, Keyframe keyframe, ByteBuffer frame) {
+        Channel channel = channels.get(roomId);
+        if (channel == null) {
+            return;
+        }
+        byte[] marker = new byte[frame.remaining()];
+        frame.get(frame.position(), marker);
+        synchronized (channel) {
+            channel.flush();
+            channel.keyframe = keyframe;
+            channel.dropHistory(true);
+            channel.append(new Batch(channel.nextSequence++, marker, true));
+        }
+    }
+
+    public Keyframe getKeyframe(long roomId) {
+        Channel channel = channels.get(roomId);
+        return channel == null ? null : channel.keyframe;
+    }
+
+    public int getSpectatorCount(long roomId) {
+        Channel channel = channels.get(roomId);
+        return channel == null ? 0 : channel.subscribers.size();
+    }
+
+    public void subscribe(WebSocketSession session, long roomId) throws IOException {
+        Channel channel = channels.get(roomId);
+        if (channel == null) {
+            session.close(CloseStatus.NOT_ACCEPTABLE.withReason("Room not found"));
+            return;
+        }
+        if (channel.subscribers.size() >= maxPerRoom) {
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+            return;
+        }
+        // A stalled viewer must not hold a drain thread for long
+        if (session instanceof NativeWebSocketSession nativeWebSocketSession) {
+            Session nativeSession = nativeWebSocketSession.getNativeSession(Session.class);
+            if (nativeSession != null) {
+                nativeSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeout);
+            }
+        }
+
+        Subscriber subscriber = new Subscriber(channel, session);
+        session.getAttributes().put(SUBSCRIBER_ATTRIBUTE, subscriber);
+        channel.subscribers.add(subscriber);
+        subscriber.schedule(); // the first drain performs the catch-up
+    }
+
+    public void unsubscribe(WebSocketSession session) {
+        Subscriber subscriber = (Subscriber) session.getAttributes().remove(SUBSCRIBER_ATTRIBUTE);
+        if (subscriber != null) {
+            subscriber.channel.subscribers.remove(subscriber);
+        }
+    }
+
+    /**
+     * Push out partially filled batches so slow-input games still stream smoothly
+     */
+    @Scheduled(fixedRate = 100)
+    public void flushAll() {
+        for (Channel channel : channels.values()) {
+            synchronized (channel) {
+                channel.flush();
+            }
+        }
+    }
+
+    /** A batch of frames, shared by every subscriber it is queued for. */
+    private record Batch(long sequence, byte[] data, boolean keyframe) {
+    }
+
+    private final class Channel {
+        final long roomId;
+        final byte[] buffer;
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        final List<Batch> history = new ArrayList<>(); // batches since the keyframe
+        int length;
+        long nextSequence;
+        int historyBytes;
+        boolean historyComplete = true; // history reaches back to the keyframe or stream start
+        volatile Keyframe keyframe;
+
+        Channel(long roomId, int bufferSize) {
+            this.roomId = roomId;
+            this.buffer = new byte[bufferSize];
+        }
+
+        /**
+         * Forget the history and give its bytes back to the shared budget
+         *
+         * @param complete whether a new history starts here, i.e. at a keyframe
+         */
+        void dropHistory(boolean complete) {
+            totalHistoryBytes.addAndGet(-historyBytes);
+            history.clear();
+            historyBytes = 0;
+            historyComplete = complete;
+        }
+
+        void flush() {
+            if (length == 0) {
+                return;
+            }
+            Batch batch = new Batch(nextSequence++, Arrays.copyOf(buffer, length), false);
+            length = 0;
+            append(batch);
+        }
+
+        void append(Batch batch) {
+            if (historyComplete) {
+                int length = batch.data().length;
+                boolean fits = historyBytes + length <= historyLimit;
+                if (fits && totalHistoryBytes.addAndGet(length) > totalHistoryLimit) {
+                    totalHistoryBytes.addAndGet(-length);
+                    fits = false;
+                }
+                if (fits) {
+                    historyBytes += length;
+                    history.add(batch);
+                } else {
+                    // Too far from a keyframe to replay, or too many rooms are; late joiners wait for the next one
+                    dropHistory(false);
+                }
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(batch);
+            }
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+        final Channel channel;
+        final WebSocketSession session;
+        final ArrayBlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean resync = true;
+        volatile boolean closeAfterDrain;
+
+        // Only touched by the draining thread
+        boolean synced;
+        long lastSent = -1;
+
+        Subscriber(Channel channel, WebSocketSession session) {
+            this.channel = channel;
+            this.session = session;
+        }
+
+        /** Called with the channel lock held. Never blocks. */
+        void offer(Batch batch) {
+            if (!queue.offer(batch)) {
+                queue.clear();
+                resync = true;
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    spectatorExecutor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                do {
+                    if (resync) {
+                        resync();
+                    }
+                    Batch batch;
+                    while ((batch = queue.poll()) != null && session.isOpen()) {
+                        send(batch);
+                    }
+                    if (closeAfterDrain && queue.isEmpty()) {
+                        unsubscribe(session);
+                        session.close(CloseStatus.NORMAL);
+                        return;
+                    }
+                    scheduled.set(false);
+                } while ((!queue.isEmpty() || resync) && scheduled.compareAndSet(false, true));
+            } catch (IOException e) {
+                log.debug("Dropping spectator {} of room {}: {}", session.getId(), channel.roomId, e.getMessage());
+                scheduled.set(false);
+                unsubscribe(session);
+                try {
+                    session.close(CloseStatus.SESSION_NOT_RELIABLE);
+                } catch (IOException ignored) {
+                    // already gone
+                }
+            }
+        }
+
+        /**
+         * Replay the keyframe and everything after it. Batches still queued
+         * from before the snapshot are skipped by sequence number.
+         */
+        private void resync() throws IOException {
+            resync = false;
+            List<Batch> catchUp = null;
+            synchronized (channel) {
+                if (channel.historyComplete) {
+                    catchUp = new ArrayList<>(channel.history);
+                }
+            }
+            synced = catchUp != null;
+            if (catchUp != null) {
+                for (Batch batch : catchUp) {
+                    sendNow(batch);
+                }
+            }
+        }
+
+        private void send(Batch batch) throws IOException {
+            if (batch.sequence() <= lastSent) {
+                return;
+            }
+            if (!synced) {
+                if (!batch.keyframe()) {
+                    return; // waiting for a keyframe to start from
+                }
+                synced = true;
+            }
+            sendNow(batch);
+        }
+
+        private void sendNow(Batch batch) throws IOException {
+            session.sendMessage(new BinaryMessage(ByteBuffer.wrap(batch.data())));
+            lastSent = Math.max(lastSent, batch.sequence());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.UserSyncDTO;
+import com.nestgame.entity.User;
+import com.nestgame.repository.UserChangeRepository;
+import com.nestgame.repository.UserChangeRepository.Change;
+import com.nestgame.repository.UserChangeRepository.ChangeRow;
+import com.nestgame.repository.UserChangeRepository.VersionRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delta sync of a user's library (favorites, play history, ratings).
+ *
+ * Every change appends game ids to a per-user log under a monotonically
+ * increasing version; clients keep the last version they saw and ask only
+ * for what came after. Compaction drops entries superseded by a later
+ * change of the same game, which is invisible to clients, and entries past
+ * the retention period, which forces clients older than them to resync.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserChangeService {
+
+    public static final String FAVORITE = "favorite";
+    public static final String HISTORY = "history";
+    public static final String RATING = "rating";
+
+    private final UserChangeRepository userChangeRepository;
+
+    @Value("${app.sync.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${app.sync.max-changes:1000}")
+    private int maxChanges;
+
+    /**
+     * Record that games were added to or removed from one of the user's
+     * lists; joins the caller's transaction
+     */
+    public void record(Long userId, String family, Collection<Long> gameIds, boolean removed) {
+        if (gameIds.isEmpty()) {
+            return;
+        }
+        userChangeRepository.append(userId, gameIds.stream()
+                .distinct()
+                .map(gameId -> new Change(family, gameId, removed))
+                .toList());
+    }
+
+    public void record(Long userId, String family, Long gameId, boolean removed) {
+        record(userId, family, List.of(gameId), removed);
+    }
+
+    /**
+     * Changes since {@code since}, collapsed to the latest state per game
+     */
+    @Transactional(readOnly = true)
+    public UserSyncDTO getChanges(User user, long since) {
+        VersionRow current = userChangeRepository.findVersion(user.getId()).orElse(new VersionRow(0, 0));
+        // Nothing to apply changes to, behind the compacted part of the log, or ahead of it after a reset
+        if (since <= 0 || since < current.compactedThrough() || since > current.version()) {
+            return UserSyncDTO.fullResync(current.version());
+        }
+        if (since == current.version()) {
+            return new UserSyncDTO(current.version(), false,
+                    List.of(), List.of(), List.of(), List.of(), List.of(), List.of());
+        }
+
+        List<ChangeRow> rows = userChangeRepository.findChanges(user.getId(), since, current.version(),
+                maxChanges + 1);
+        if (rows.size() > maxChanges) {
+            return UserSyncDTO.fullResync(current.version());
+        }
+
+        Map<String, Map<Long, Boolean>> latest = new LinkedHashMap<>();
+        for (ChangeRow row : rows) {
+            Map<Long, Boolean> games = latest.computeIfAbsent(row.family(), f -> new LinkedHashMap<>());
+            games.remove(row.gameId()); // keep the order of the latest change
+            games.put(row.gameId(), row.removed());
+        }
+
+        return new UserSyncDTO(current.version(), false,
+                ids(latest.get(FAVORITE), false),
+                ids(latest.get(FAVORITE), true),
+                ids(latest.get(HISTORY), false),
+                ids(latest.get(HISTORY), true),
+                ids(latest.get(RATING), false),
+                ids(latest.get(RATING), true));
+    }
+
+    @Scheduled(fixedDelayString = "${app.sync.compact-interval:3600000}")
+    public void compact() {
+        int superseded = userChangeRepository.removeSuperseded();
+        int expired = userChangeRepository.truncateBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (superseded > 0 || expired > 0) {
+            log.info("Compacted user change log: {} superseded, {} expired", superseded, expired);
+        }
+    }
+
+    private static List<Long> ids(Map<Long, Boolean> games, boolean removed) {
+        if (games == null) {
+            return List.of();
+        }
+        List<Long> result = new ArrayList<>();
+        games.forEach((gameId, isRemoved) -> {
+            if (isRemoved == removed) {
+                result.add(gameId);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,61 @@
+package com.nestgame.service;
+
+import com.nestgame.repository.UserChangeRepository;
+import com.nestgame.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Versions of each user's private resources, used as ETags so polls of
+ * unchanged lists are answered with 304 after a primary-key lookup instead
+ * of the list query.
+ *
+ * Versions are read from the database, so every node hands out the same
+ * ETag. Favorites, history and ratings share the user's change log version
+ * (see {@link UserChangeService}), which every change to them bumps in the
+ * same transaction; the profile uses the user's updatedAt.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserResourceVersions {
+
+    public enum Resource {
+        FAVORITES, HISTORY, RATINGS, PROFILE
+    }
+
+    private final UserChangeRepository userChangeRepository;
+    private final UserRepository userRepository;
+
+    public long version(Long userId, Resource resource) {
+        if (resource == Resource.PROFILE) {
+            return userRepository.findUpdatedAt(userId)
+                    .map(updatedAt -> ChronoUnit.MICROS.between(Instant.EPOCH,
+                            updatedAt.atZone(ZoneId.systemDefault()).toInstant()))
+                    .orElse(0L);
+        }
+        return userChangeRepository.findVersion(userId)
+                .map(UserChangeRepository.VersionRow::version)
+                .orElse(0L);
+    }
+
+    /**
+     * Strong ETag for the resource
+     *
+     * @param dependencies versions of other data the response embeds, e.g. the game catalog
+     */
+    public String etag(Long userId, Resource resource, long... dependencies) {
+        StringBuilder etag = new StringBuilder("\"")
+                .append(resource.name().toLowerCase().charAt(0))
+                .append(userId)
+                .append('-')
+                .append(Long.toHexString(version(userId, resource)));
+        for (long dependency : dependencies) {
+            etag.append('-').append(Long.toHexString(dependency));
+        }
+        return etag.append('"').toString();
+    }
+}
@@ -1,19 +1,27 @@
 package com.nestgame.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.nestgame.dto.GameDTO;
 import com.nestgame.entity.Game;
 import com.nestgame.entity.User;
 import com.nestgame.exception.BadRequestException;
 import com.nestgame.exception.ResourceNotFoundException;
+import com.nestgame.repository.FavoriteRepository;
 import com.nestgame.repository.GameRepository;
 import com.nestgame.repository.UserRepository;
+import com.nestgame.util.AfterCommit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,90 +31,114 @@ public class UserService {
 
         private final UserRepository userRepository;
         private final GameRepository gameRepository;
+        private final GameMapper gameMapper;
+        private final FavoriteRepository favoriteRepository;
+        private final UserChangeService userChangeService;
+
+        /** Favorite game ids per user; a sorted long[] is a fraction of a Set<Long>. */
+        private final Cache<Long, long[]> favoriteIds = Caffeine.newBuilder()
+                        .maximumSize(10_000)
+                        .build();
 
         @Transactional
         public void addFavorite(User user, Long gameId) {
                 log.info("Adding favorite: userId={}, gameId={}", user.getId(), gameId);
 
-                User managedUser = userRepository.findById(user.getId())
-                                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy người dùng"));
-
-                Game game = gameRepository.findById(gameId)
-                                .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Không tìm thấy game với ID: " + gameId));
-
-                if (managedUser.getFavorites().contains(game)) {
+                if (!favoriteRepository.add(user.getId(), gameId)) {
+                        requireGame(gameId);
                         throw new BadRequestException("Game đã có trong danh sách yêu thích");
                 }
 
-                managedUser.getFavorites().add(game);
-                userRepository.save(managedUser);
-                log.info("Successfully added game '{}' to favorites for user '{}'", game.getName(),
-                                managedUser.getUsername());
+                userChangeService.record(user.getId(), UserChangeService.FAVORITE, gameId, false);
+                AfterCommit.run(() -> favoriteIds.asMap().computeIfPresent(user.getId(),
+                                (id, ids) -> withId(ids, gameId)));
+                log.info("Successfully added game {} to favorites for user '{}'", gameId, user.getUsername());
         }
 
         @Transactional
         public void removeFavorite(User user, Long gameId) {
                 log.info("Removing favorite: userId={}, gameId={}", user.getId(), gameId);
 
-                User managedUser = userRepository.findById(user.getId())
-                                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy người dùng"));
-
-                Game game = gameRepository.findById(gameId)
-                                .orElseThrow(() -> new ResourceNotFoundException(
-                                                "Không tìm thấy game với ID: " + gameId));
-
-                if (!managedUser.getFavorites().contains(game)) {
+                if (!favoriteRepository.remove(user.getId(), gameId)) {
+                        requireGame(gameId);
                         throw new BadRequestException("Game không có trong danh sách yêu thích");
                 }
 
-                managedUser.getFavorites().remove(game);
-                userRepository.save(managedUser);
-                log.info("Successfully removed game '{}' from favorites for user '{}'", game.getName(),
-                                managedUser.getUsername());
+                userChangeService.record(user.getId(), UserChangeService.FAVORITE, gameId, true);
+                AfterCommit.run(() -> favoriteIds.asMap().computeIfPresent(user.getId(),
+                                (id, ids) -> withoutId(ids, gameId)));
+                log.info("Successfully removed game {} from favorites for user '{}'", gameId, user.getUsername());
+        }
+
+        /**
+         * The user's favorite game ids, sorted ascending for binary search.
+         * The array is shared; do not modify it.
+         */
+        public long[] getFavoriteIds(Long userId) {
+                return favoriteIds.get(userId, favoriteRepository::findGameIds);
+        }
+
+        public boolean isFavorite(Long userId, Long gameId) {
+                return Arrays.binarySearch(getFavoriteIds(userId), gameId) >= 0;
         }
 
         @Transactional(readOnly = true)
         public List<GameDTO> getUserFavorites(User user) {
                 log.info("Getting favorites for userId={}", user.getId());
 
-                return userRepository.findById(user.getId())
-                                .map(managedUser -> managedUser.getFavorites().stream()
-                                                .map(this::convertToGameDTO)
-                                                .collect(Collectors.toList()))
-                                .orElse(Collections.emptyList());
+                List<Long> ids = favoriteRepository.findGameIdsByRecent(user.getId());
+                Map<Long, Game> games = new HashMap<>();
+                gameRepository.findAllById(ids).forEach(game -> games.put(game.getId(), game));
+                return ids.stream()
+                                .map(games::get)
+                                .filter(Objects::nonNull)
+                                .map(gameMapper::toDTO)
+                                .collect(Collectors.toList());
+        }
+
+        private void requireGame(Long gameId) {
+                if (!gameRepository.existsById(gameId)) {
+                        throw new ResourceNotFoundException("Không tìm thấy game với ID: " + gameId);
+                }
         }
 
-        private GameDTO convertToGameDTO(Game game) {
-                return GameDTO.builder()
-                                .id(game.getId())
-                                .name(game.getName())
-                                .fileName(game.getFileName())
-                                .path(game.getPath())
-                                .categoryId(game.getCategory() != null ? game.getCategory().getId() : null)
-                                .categoryName(game.getCategory() != null ? game.getCategory().getName() : null)
-                                .category(game.getCategory() != null ? game.getCategory().getName() : null)
-                                .description(game.getDescription())
-                                .rating(game.getRating())
-                                .year(game.getYear())
-                                .region(game.getRegion())
-                                .isFeatured(game.getIsFeatured())
-                                .imageUrl(game.getImageUrl())
-                                .imageSnap(game.getImageSnap())
-                                .imageTitle(game.getImageTitle())
-                                .playCount(game.getPlayCount())
-                                .createdAt(game.getCreatedAt())
-                                .updatedAt(game.getUpdatedAt())
-                                .build();
+        private static long[] withId(long[] ids, long id) {
+                int index = Arrays.binarySearch(ids, id);
+                if (index >= 0) {
+                        return ids;
+                }
+                int at = -index - 1;
+                long[] result = new long[ids.length + 1];
+                System.arraycopy(ids, 0, result, 0, at);
+                result[at] = id;
+                System.arraycopy(ids, at, result, at + 1, ids.length - at);
+                return result;
+        }
+
+        private static long[] withoutId(long[] ids, long id) {
+                int at = Arrays.binarySearch(ids, id);
+                if (at < 0) {
+                        return ids;
+                }
+                long[] result = new long[ids.length - 1];
+                System.arraycopy(ids, 0, result, 0, at);
+                System.arraycopy(ids, at + 1, result, at, ids.length - at - 1);
+                return result;
         }
 
+        /**
+         * @return the avatar URL that was replaced, or null
+         */
         @Transactional
-        public void updateAvatarUrl(Long userId, String avatarUrl) {
+        public String updateAvatarUrl(Long userId, String avatarUrl) {
                 log.info("Updating avatar for userId={}", userId);
                 User user = userRepository.findById(userId)
                                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy người dùng"));
+                String previous = user.getAvatarUrl();
                 user.setAvatarUrl(avatarUrl);
+                user.setUpdatedAt(LocalDateTime.now());
                 userRepository.save(user);
+                return previous;
         }
 
         @Transactional
@@ -115,6 +147,7 @@ public class UserService {
                 User user = userRepository.findById(userId)
                                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy người dùng"));
                 user.setBio(bio);
+                user.setUpdatedAt(LocalDateTime.now());
                 userRepository.save(user);
         }
 
@@ -0,0 +1,173 @@
+package com.nestgame.service;
+
+import com.nestgame.dto.UserStatsDTO;
+import com.nestgame.entity.Game;
+import com.nestgame.entity.User;
+import com.nestgame.repository.GameRepository;
+import com.nestgame.repository.UserStatsRepository;
+import com.nestgame.repository.UserStatsRepository.BucketRow;
+import com.nestgame.repository.UserStatsRepository.GameStatsRow;
+import com.nestgame.repository.UserStatsRepository.StatDelta;
+import com.nestgame.repository.UserStatsRepository.UserStatsRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Profile statistics served from rollup tables.
+ *
+ * Plays and finished sessions push deltas into the rollups as they are
+ * recorded, so a profile view is a few primary-key lookups. A "play" is a
+ * finished session; opening a game only marks the day as played. The rebuild
+ * job recomputes the rollups from play_history and play_sessions in user id
+ * chunks processed in parallel. play_history is trimmed, so the rebuild keeps
+ * stored first days and streaks it can no longer derive.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserStatsService {
+
+    private static final int MOST_PLAYED_LIMIT = 10;
+
+    private final UserStatsRepository userStatsRepository;
+    private final GameRepository gameRepository;
+    private final GameMapper gameMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicReference<RebuildStatus> rebuildStatus = new AtomicReference<>(RebuildStatus.idle());
+
+    @Value("${app.stats.rebuild-chunk-size:1000}")
+    private int rebuildChunkSize;
+
+    @Value("${app.stats.rebuild-workers:4}")
+    private int rebuildWorkers;
+
+    public record RebuildStatus(String state, int chunksDone, int chunksTotal, LocalDateTime startedAt,
+            LocalDateTime finishedAt, String error) {
+
+        static RebuildStatus idle() {
+            return new RebuildStatus("IDLE", 0, 0, null, null, null);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public UserStatsDTO getStats(User user) {
+        UserStatsRow stats = userStatsRepository.findStats(user.getId())
+                .orElse(new UserStatsRow(0, 0, null, null, 0, 0));
+        Map<String, List<UserStatsDTO.Bucket>> buckets = userStatsRepository.findBuckets(user.getId()).stream()
+                .collect(Collectors.groupingBy(BucketRow::dimension,
+                        Collectors.mapping(b -> new UserStatsDTO.Bucket(b.bucket(), b.plays(), b.seconds()),
+                                Collectors.toList())));
+
+        List<GameStatsRow> top = userStatsRepository.findMostPlayed(user.getId(), MOST_PLAYED_LIMIT);
+        Map<Long, Game> games = gameRepository.findAllById(top.stream().map(GameStatsRow::gameId).toList())
+                .stream()
+                .collect(Collectors.toMap(Game::getId, Function.identity()));
+        List<UserStatsDTO.GamePlayStats> mostPlayed = new ArrayList<>();
+        for (GameStatsRow row : top) {
+            Game game = games.get(row.gameId());
+            if (game != null) {
+                mostPlayed.add(new UserStatsDTO.GamePlayStats(gameMapper.toDTO(game), row.plays(), row.seconds(),
+                        row.lastPlayedAt()));
+            }
+        }
+
+        // A streak only counts while it can still be extended today
+        LocalDate last = stats.lastPlayedOn();
+        boolean alive = last != null && !last.isBefore(LocalDate.now().minusDays(1));
+
+        return new UserStatsDTO(
+                stats.totalPlays(),
+                stats.totalSeconds(),
+                stats.firstPlayedOn(),
+                last,
+                alive ? stats.currentStreak() : 0,
+                stats.longestStreak(),
+                buckets.getOrDefault("category", List.of()),
+                buckets.getOrDefault("region", List.of()),
+                buckets.getOrDefault("year", List.of()),
+                mostPlayed);
+    }
+
+    /**
+     * A game was opened; joins the caller's transaction
+     */
+    public void recordPlay(Long userId, Long gameId, LocalDateTime playedAt) {
+        userStatsRepository.applyDeltas(List.of(new StatDelta(userId, gameId, 0, 0, playedAt)));
+    }
+
+    /**
+     * Games opened offline and synced later; joins the caller's transaction
+     */
+    public void recordPlays(List<StatDelta> plays) {
+        userStatsRepository.applyDeltas(plays);
+    }
+
+    /**
+     * Sessions finished; joins the caller's transaction
+     */
+    public void recordSessions(List<StatDelta> sessions) {
+        userStatsRepository.applyDeltas(sessions);
+    }
+
+    public RebuildStatus getRebuildStatus() {
+        return rebuildStatus.get();
+    }
+
+    /**
+     * Start a rebuild in the background unless one is running
+     */
+    public RebuildStatus startRebuild() {
+        long maxUserId = userStatsRepository.maxUserId();
+        int chunks = (int) Math.max(1, (maxUserId + rebuildChunkSize) / rebuildChunkSize);
+        RebuildStatus current = rebuildStatus.get();
+        RebuildStatus started = new RebuildStatus("RUNNING", 0, chunks, LocalDateTime.now(), null, null);
+        if ("RUNNING".equals(current.state()) || !rebuildStatus.compareAndSet(current, started)) {
+            return rebuildStatus.get();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(rebuildWorkers);
+        AtomicInteger done = new AtomicInteger();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            long from = (long) i * rebuildChunkSize;
+            long to = from + rebuildChunkSize;
+            tasks.add(CompletableFuture.runAsync(() -> {
+                transactionTemplate.executeWithoutResult(status -> userStatsRepository.rebuildRange(from, to));
+                int finished = done.incrementAndGet();
+                rebuildStatus.updateAndGet(s -> new RebuildStatus(s.state(), finished, s.chunksTotal(),
+                        s.startedAt(), null, null));
+            }, pool));
+        }
+
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).whenComplete((ignored, error) -> {
+            pool.shutdown();
+            rebuildStatus.updateAndGet(s -> new RebuildStatus(error == null ? "DONE" : "FAILED",
+                    s.chunksDone(), s.chunksTotal(), s.startedAt(), LocalDateTime.now(),
+                    error != null ? error.getMessage() : null));
+            if (error != null) {
+                log.error("User stats rebuild failed", error);
+            } else {
+                log.info("User stats rebuilt in {} chunks", chunks);
+            }
+        });
+        return rebuildStatus.get();
+    }
+}
@@ -0,0 +1,46 @@
+package com.nestgame.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs in-memory bookkeeping once the surrounding transaction has
+ * committed, or right away when there is none. Updating a cache before
+ * commit would let a concurrent reader cache the old rows under the new
+ * state.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Like {@link #run(Runnable)}, but runs {@code rollback} instead if the
+     * transaction rolls back, e.g. to remove files written for it
+     */
+    public static void run(Runnable action, Runnable rollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                (status == STATUS_COMMITTED ? action : rollback).run();
+            }
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package com.nestgame.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for JSON responses whose validators are cheaper than the
+ * body.
+ *
+ * Spring can answer {@code If-None-Match} from a {@code ResponseEntity}'s
+ * ETag, but only after the controller has built the body. Here the
+ * validators are checked first and the body supplier runs only when the
+ * client's copy is stale.
+ *
+ * The validators describe the data, not the encoding. Each format is its
+ * own representation, so the format negotiated from {@code Accept} is folded
+ * into the ETag and responses vary by {@code Accept}: a cached JSON body is
+ * never served to a CBOR client.
+ */
+public final class ConditionalGet {
+
+    /** A body format and what it adds to the ETag. */
+    private record Format(MediaType type, String etagSuffix) {
+    }
+
+    /** Formats in the order the message converters are tried, JSON first. */
+    private static final List<Format> FORMATS = List.of(
+            new Format(MediaType.APPLICATION_JSON, ""),
+            new Format(MediaType.APPLICATION_CBOR, "-cbor"),
+            new Format(new MediaType("application", "x-jackson-smile"), "-smile"));
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * @param etag         strong validator, with or without quotes
+     * @param lastModified epoch millis, or -1 if unknown
+     */
+    public static <T> ResponseEntity<T> respond(WebRequest request, String etag, long lastModified,
+            CacheControl cacheControl, Supplier<T> body) {
+        String suffix = format(request.getHeader(HttpHeaders.ACCEPT)).etagSuffix();
+        etag = etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + suffix + "\"" : etag + suffix;
+        // Sets ETag / Last-Modified on the response either way
+        boolean notModified = lastModified >= 0
+                ? request.checkNotModified(etag, lastModified)
+                : request.checkNotModified(etag);
+        if (notModified) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).body(body.get());
+    }
+
+    /**
+     * The format the converters will write for an {@code Accept} header,
+     * JSON when nothing else is asked for
+     */
+    private static Format format(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return FORMATS.get(0);
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            MimeTypeUtils.sortBySpecificity(accepted);
+        } catch (IllegalArgumentException e) {
+            // Unparsable or too long; the converters will reject it anyway
+            return FORMATS.get(0);
+        }
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (Format format : FORMATS) {
+                if (type.isCompatibleWith(format.type())) {
+                    return format;
+                }
+            }
+        }
+        return FORMATS.get(0);
+    }
+}
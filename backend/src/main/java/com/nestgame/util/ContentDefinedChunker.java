@@ -0,0 +1,111 @@
+package com.nestgame.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SplittableRandom;
+
+/**
+ * Splits a stream into content-defined chunks using a gear rolling hash
+ * (FastCDC-style normalized chunking).
+ *
+ * Chunk boundaries depend only on nearby bytes, so an edit in one region of
+ * the input only changes the chunks around it; the rest of the chunks, and
+ * their hashes, stay identical between successive versions.
+ */
+public class ContentDefinedChunker {
+
+    private static final long[] GEAR = new long[256];
+
+    static {
+        // Fixed seed: boundaries must be identical on every node and across restarts
+        SplittableRandom random = new SplittableRandom(0x4E455347414D45L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final InputStream in;
+    private final int minSize;
+    private final int avgSize;
+    private final int maxSize;
+    private final long maskSmall;
+    private final long maskLarge;
+
+    private final byte[] buffer;
+    private int start;
+    private int end;
+    private boolean eof;
+
+    public ContentDefinedChunker(InputStream in, int minSize, int avgSize, int maxSize) {
+        if (minSize <= 0 || minSize > avgSize || avgSize > maxSize || Integer.bitCount(avgSize) != 1) {
+            throw new IllegalArgumentException("Expected 0 < min <= avg <= max with avg a power of two");
+        }
+        this.in = in;
+        this.minSize = minSize;
+        this.avgSize = avgSize;
+        this.maxSize = maxSize;
+        int bits = Integer.numberOfTrailingZeros(avgSize);
+        // Harder to cut before the average size, easier after it: keeps sizes close to the average
+        this.maskSmall = (1L << (bits + 1)) - 1;
+        this.maskLarge = (1L << (bits - 1)) - 1;
+        this.buffer = new byte[maxSize * 2];
+    }
+
+    public int maxChunkSize() {
+        return maxSize;
+    }
+
+    /**
+     * Copy the next chunk into {@code out} (at least {@link #maxChunkSize()} long).
+     *
+     * @return the chunk length, or -1 when the stream is exhausted
+     */
+    public int next(byte[] out) throws IOException {
+        fill();
+        int available = end - start;
+        if (available == 0) {
+            return -1;
+        }
+
+        int length = available <= minSize ? available : findBoundary(Math.min(available, maxSize));
+        System.arraycopy(buffer, start, out, 0, length);
+        start += length;
+        return length;
+    }
+
+    private int findBoundary(int limit) {
+        long hash = 0;
+        int normal = Math.min(avgSize, limit);
+        int i = minSize;
+        for (; i < normal; i++) {
+            hash = (hash << 1) + GEAR[buffer[start + i] & 0xFF];
+            if ((hash & maskSmall) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < limit; i++) {
+            hash = (hash << 1) + GEAR[buffer[start + i] & 0xFF];
+            if ((hash & maskLarge) == 0) {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    private void fill() throws IOException {
+        if (eof || end - start >= maxSize) {
+            return;
+        }
+        System.arraycopy(buffer, start, buffer, 0, end - start);
+        end -= start;
+        start = 0;
+        while (end < buffer.length) {
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read == -1) {
+                eof = true;
+                return;
+            }
+            end += read;
+        }
+    }
+}
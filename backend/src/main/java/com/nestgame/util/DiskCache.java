@@ -0,0 +1,197 @@
+package com.nestgame.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded cache of files on local disk.
+ *
+ * Keys are hashed with SHA-256 and sharded into 256 sub-directories so no
+ * single directory grows too large. When the total size exceeds the limit the
+ * least recently read entries are removed until the cache is back under 90%.
+ */
+@Slf4j
+public class DiskCache {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path root;
+    private final long maxBytes;
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    public DiskCache(Path root, long maxBytes) throws IOException {
+        this.root = root;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(root);
+        scan();
+    }
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface FileWriter {
+        void write(Path file) throws IOException;
+    }
+
+    /**
+     * Look up a cached file, marking it as recently used.
+     */
+    public Optional<Path> get(String key) {
+        Path file = resolve(key);
+        Entry entry = entries.get(file);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (!Files.exists(file)) {
+            remove(file);
+            return Optional.empty();
+        }
+        entry.lastAccess = System.nanoTime();
+        return Optional.of(file);
+    }
+
+    /**
+     * Write a new entry. The content is written to a temporary file first and
+     * moved into place atomically, so readers never observe partial files.
+     */
+    public Path put(String key, Writer writer) throws IOException {
+        return putFile(key, temp -> {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writer.write(out);
+            }
+        });
+    }
+
+    /**
+     * Like {@link #put(String, Writer)}, for producers that need a file they
+     * can seek in or memory-map rather than a stream.
+     */
+    public Path putFile(String key, FileWriter writer) throws IOException {
+        Path file = resolve(key);
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), TEMP_SUFFIX);
+        try {
+            writer.write(temp);
+            long size = Files.size(temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Entry previous = entries.put(file, new Entry(size, System.nanoTime()));
+            totalBytes.addAndGet(previous == null ? size : size - previous.size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        evictIfNeeded();
+        return file;
+    }
+
+    public void invalidate(String key) {
+        Path file = resolve(key);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cache file {}: {}", file, e.getMessage());
+        }
+        remove(file);
+    }
+
+    public long size() {
+        return totalBytes.get();
+    }
+
+    private Path resolve(String key) {
+        String hash = sha256(key);
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private void remove(Path file) {
+        Entry removed = entries.remove(file);
+        if (removed != null) {
+            totalBytes.addAndGet(-removed.size);
+        }
+    }
+
+    private synchronized void evictIfNeeded() {
+        if (totalBytes.get() <= maxBytes) {
+            return;
+        }
+        long target = maxBytes * 9 / 10;
+        List<Map.Entry<Path, Entry>> candidates = new ArrayList<>(entries.entrySet());
+        candidates.sort((a, b) -> Long.compare(a.getValue().lastAccess, b.getValue().lastAccess));
+
+        int evicted = 0;
+        for (Map.Entry<Path, Entry> candidate : candidates) {
+            if (totalBytes.get() <= target) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(candidate.getKey());
+                remove(candidate.getKey());
+                evicted++;
+            } catch (IOException e) {
+                log.warn("Failed to evict cache file {}: {}", candidate.getKey(), e.getMessage());
+            }
+        }
+        log.info("Evicted {} entries from disk cache {} ({} bytes remaining)", evicted, root, totalBytes.get());
+    }
+
+    private void scan() throws IOException {
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                    for (Path file : files) {
+                        if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                            Files.deleteIfExists(file);
+                            continue;
+                        }
+                        long size = Files.size(file);
+                        // Seed recency from mtime so older entries are evicted first after a restart
+                        long age = System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis();
+                        entries.put(file, new Entry(size, System.nanoTime() - age * 1_000_000L));
+                        totalBytes.addAndGet(size);
+                    }
+                }
+            }
+        }
+        log.info("Disk cache {} holds {} entries ({} bytes)", root, entries.size(), totalBytes.get());
+        evictIfNeeded();
+    }
+
+    public static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Entry {
+        final long size;
+        volatile long lastAccess;
+
+        Entry(long size, long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
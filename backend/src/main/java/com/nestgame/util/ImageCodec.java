@@ -0,0 +1,136 @@
+package com.nestgame.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Decoding, scaling and encoding helpers built on ImageIO.
+ */
+public final class ImageCodec {
+
+    /** Output format used for generated images: WebP when an ImageIO plugin is installed, JPEG otherwise. */
+    public static final String OUTPUT_FORMAT = ImageIO.getImageWritersByFormatName("webp").hasNext() ? "webp" : "jpeg";
+
+    public static final String OUTPUT_CONTENT_TYPE = "image/" + OUTPUT_FORMAT;
+
+    /** File name extension for {@link #OUTPUT_FORMAT}. */
+    public static final String OUTPUT_EXTENSION = OUTPUT_FORMAT.equals("jpeg") ? "jpg" : OUTPUT_FORMAT;
+
+    private static final float QUALITY = 0.85f;
+
+    private ImageCodec() {
+    }
+
+    /**
+     * Decode an image, subsampling while reading so that the decoded raster is
+     * not much larger than {@code targetSize} on its shorter side. This keeps
+     * memory use bounded regardless of the source resolution.
+     */
+    public static BufferedImage read(Path file, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            if (input == null) {
+                throw new IOException("Cannot open image " + file);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + file);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int shorterSide = Math.min(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, shorterSide / (targetSize * 2));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scale an image so that it fits inside a {@code maxSize} square, keeping
+     * its aspect ratio. Images that already fit are only converted to RGB.
+     */
+    public static BufferedImage scaleToFit(BufferedImage source, int maxSize) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        return resize(source, 0, 0, source.getWidth(), source.getHeight(), width, height);
+    }
+
+    /**
+     * Crop the centre square of an image and scale it to {@code size} x {@code size}.
+     */
+    public static BufferedImage cropSquare(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        int x = (source.getWidth() - side) / 2;
+        int y = (source.getHeight() - side) / 2;
+        return resize(source, x, y, side, side, size, size);
+    }
+
+    public static void write(BufferedImage image, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(OUTPUT_FORMAT).next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionTypes() != null && param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int sx, int sy, int sw, int sh, int width, int height) {
+        // Halve in steps first; a single bilinear pass from a much larger image aliases badly
+        BufferedImage current = source;
+        int cx = sx, cy = sy, cw = sw, ch = sh;
+        while (cw / 2 >= width && ch / 2 >= height) {
+            BufferedImage half = draw(current, cx, cy, cw, ch, cw / 2, ch / 2);
+            current = half;
+            cx = 0;
+            cy = 0;
+            cw = half.getWidth();
+            ch = half.getHeight();
+        }
+        return draw(current, cx, cy, cw, ch, width, height);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int sx, int sy, int sw, int sh, int width, int height) {
+        // JPEG has no alpha channel, so transparent box art is flattened onto white
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, sx, sy, sx + sw, sy + sh, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,251 @@
+package com.nestgame.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of per-frame controller input.
+ *
+ * <pre>
+ * header:  "NGRP" | version u8 | ports u8 | frameCount u32 (big endian)
+ * records: runLength varint | input bytes (one per port)
+ * </pre>
+ *
+ * Consecutive identical frames collapse into one record, so an hour of play
+ * is a few tens of kilobytes. Runs are split every {@code restartInterval}
+ * frames; the seek index records the byte offset of each such restart point
+ * so playback can start decoding there instead of at frame zero.
+ */
+public final class ReplayCodec {
+
+    public static final int HEADER_SIZE = 10;
+    private static final byte[] MAGIC = "NGRP".getBytes();
+    private static final byte VERSION = 1;
+
+    /** Result of encoding: frame count and the seek index as (frame, offset) pairs. */
+    public record Encoded(long frameCount, long[] restartFrames, long[] restartOffsets) {
+
+        /** Seek index serialized as delta-encoded varints. */
+        public byte[] seekIndex() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long previousFrame = 0, previousOffset = 0;
+            for (int i = 0; i < restartFrames.length; i++) {
+                writeVarint(out, restartFrames[i] - previousFrame);
+                writeVarint(out, restartOffsets[i] - previousOffset);
+                previousFrame = restartFrames[i];
+                previousOffset = restartOffsets[i];
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /** A restart point: decoding can begin at {@code offset} with frame number {@code frame}. */
+    public record RestartPoint(long frame, long offset) {
+    }
+
+    private ReplayCodec() {
+    }
+
+    /**
+     * Encode raw input ({@code ports} bytes per frame) from {@code raw} into {@code target}.
+     */
+    public static Encoded encode(InputStream raw, int ports, Path target, int restartInterval, long maxFrames)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CountingOutput out = new CountingOutput(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 8192));
+            out.write(new byte[HEADER_SIZE]); // placeholder, patched below
+
+            InputStream in = new BufferedInputStream(raw);
+            byte[] current = new byte[ports];
+            byte[] run = new byte[ports];
+            long runLength = 0;
+            long frames = 0;
+            LongList restartFrames = new LongList();
+            LongList restartOffsets = new LongList();
+
+            while (readFrame(in, current)) {
+                boolean restart = frames % restartInterval == 0;
+                if (runLength > 0 && (restart || !Arrays.equals(current, run))) {
+                    writeRecord(out, runLength, run);
+                    runLength = 0;
+                }
+                if (restart) {
+                    restartFrames.add(frames);
+                    restartOffsets.add(out.count);
+                }
+                if (runLength == 0) {
+                    System.arraycopy(current, 0, run, 0, ports);
+                }
+                runLength++;
+                frames++;
+                if (frames > maxFrames) {
+                    throw new IOException("Replay exceeds " + maxFrames + " frames");
+                }
+            }
+            if (runLength > 0) {
+                writeRecord(out, runLength, run);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.put(MAGIC).put(VERSION).put((byte) ports).putInt((int) frames).flip();
+            channel.write(header, 0);
+            return new Encoded(frames, restartFrames.toArray(), restartOffsets.toArray());
+        }
+    }
+
+    /**
+     * Decode records from {@code encoded} (positioned at a restart point) back into raw frames,
+     * dropping the first {@code skipFrames} frames.
+     */
+    public static void decode(InputStream encoded, int ports, long skipFrames, OutputStream raw) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(encoded));
+        BufferedOutputStream out = new BufferedOutputStream(raw);
+        byte[] value = new byte[ports];
+        long toSkip = skipFrames;
+        while (true) {
+            long runLength;
+            try {
+                runLength = readVarint(in);
+            } catch (EOFException e) {
+                break;
+            }
+            in.readFully(value);
+            long skipped = Math.min(toSkip, runLength);
+            toSkip -= skipped;
+            for (long i = skipped; i < runLength; i++) {
+                out.write(value);
+            }
+        }
+        out.flush();
+    }
+
+    public static RestartPoint[] parseSeekIndex(byte[] index) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(index));
+        LongList frames = new LongList();
+        LongList offsets = new LongList();
+        long frame = 0, offset = 0;
+        while (in.available() > 0) {
+            frame += readVarint(in);
+            offset += readVarint(in);
+            frames.add(frame);
+            offsets.add(offset);
+        }
+        RestartPoint[] points = new RestartPoint[frames.size];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new RestartPoint(frames.values[i], offsets.values[i]);
+        }
+        return points;
+    }
+
+    /**
+     * Latest restart point at or before {@code frame}.
+     */
+    public static RestartPoint restartPointFor(RestartPoint[] points, long frame) {
+        RestartPoint best = new RestartPoint(0, HEADER_SIZE);
+        int low = 0, high = points.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (points[mid].frame() <= frame) {
+                best = points[mid];
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return best;
+    }
+
+    private static boolean readFrame(InputStream in, byte[] frame) throws IOException {
+        int read = in.readNBytes(frame, 0, frame.length);
+        if (read == 0) {
+            return false;
+        }
+        if (read < frame.length) {
+            throw new IOException("Input stream ends mid-frame");
+        }
+        return true;
+    }
+
+    private static void writeRecord(OutputStream out, long runLength, byte[] value) throws IOException {
+        writeVarint(out, runLength);
+        out.write(value);
+    }
+
+    private static void writeVarint(OutputStream out, long value) {
+        try {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static class CountingOutput extends FilterOutputStream {
+        long count;
+
+        CountingOutput(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static class LongList {
+        long[] values = new long[16];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
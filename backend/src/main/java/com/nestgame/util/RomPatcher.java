@@ -0,0 +1,269 @@
+package com.nestgame.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Applies IPS and BPS patches to ROM images.
+ *
+ * The source ROM is memory-mapped and the patch is read as a stream, so the
+ * only buffers allocated are small fixed-size copy buffers.
+ */
+public final class RomPatcher {
+
+    public enum Format {
+        IPS, BPS
+    }
+
+    /** Checksums recorded in a BPS footer; IPS patches carry none. */
+    public record Footer(long sourceCrc32, long targetCrc32, long patchCrc32) {
+    }
+
+    private static final byte[] IPS_MAGIC = "PATCH".getBytes();
+    private static final byte[] BPS_MAGIC = "BPS1".getBytes();
+    private static final int IPS_EOF = 0x454F46;
+    private static final int BPS_FOOTER_SIZE = 12;
+
+    private RomPatcher() {
+    }
+
+    public static Format detectFormat(Path patch) throws IOException {
+        byte[] header = new byte[5];
+        try (InputStream in = Files.newInputStream(patch)) {
+            int read = in.readNBytes(header, 0, header.length);
+            if (read == 5 && Arrays.equals(header, IPS_MAGIC)) {
+                return Format.IPS;
+            }
+            if (read >= 4 && Arrays.equals(Arrays.copyOf(header, 4), BPS_MAGIC)) {
+                return Format.BPS;
+            }
+        }
+        throw new IOException("Unrecognised patch format");
+    }
+
+    public static Footer readBpsFooter(Path patch) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(patch.toFile(), "r")) {
+            if (file.length() < BPS_MAGIC.length + BPS_FOOTER_SIZE) {
+                throw new IOException("BPS patch is truncated");
+            }
+            byte[] footer = new byte[BPS_FOOTER_SIZE];
+            file.seek(file.length() - BPS_FOOTER_SIZE);
+            file.readFully(footer);
+            ByteBuffer buffer = ByteBuffer.wrap(footer).order(ByteOrder.LITTLE_ENDIAN);
+            return new Footer(
+                    Integer.toUnsignedLong(buffer.getInt()),
+                    Integer.toUnsignedLong(buffer.getInt()),
+                    Integer.toUnsignedLong(buffer.getInt()));
+        }
+    }
+
+    public static long crc32(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return crc32(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static long crc32(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        return crc.getValue();
+    }
+
+    /**
+     * Apply {@code patch} to {@code source}, writing the result to {@code target}.
+     * BPS source and target checksums are verified; a mismatch throws.
+     */
+    public static void apply(Format format, Path source, Path patch, Path target) throws IOException {
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer sourceBuffer = sourceChannel.map(FileChannel.MapMode.READ_ONLY, 0, sourceChannel.size());
+            switch (format) {
+                case IPS -> applyIps(sourceBuffer, patch, target);
+                case BPS -> applyBps(sourceBuffer, patch, target);
+            }
+        }
+    }
+
+    private static void applyIps(ByteBuffer source, Path patch, Path target) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(patch)));
+                FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            in.skipNBytes(IPS_MAGIC.length);
+            out.write(source.duplicate(), 0);
+
+            byte[] buffer = new byte[8192];
+            while (true) {
+                int offset = readUInt24(in);
+                if (offset == IPS_EOF) {
+                    break;
+                }
+                int size = in.readUnsignedShort();
+                if (size == 0) {
+                    // RLE record: one byte repeated
+                    int runLength = in.readUnsignedShort();
+                    Arrays.fill(buffer, 0, Math.min(runLength, buffer.length), in.readByte());
+                    for (int written = 0; written < runLength; ) {
+                        int chunk = Math.min(runLength - written, buffer.length);
+                        out.write(ByteBuffer.wrap(buffer, 0, chunk), offset + written);
+                        written += chunk;
+                    }
+                } else {
+                    for (int written = 0; written < size; ) {
+                        int chunk = Math.min(size - written, buffer.length);
+                        in.readFully(buffer, 0, chunk);
+                        out.write(ByteBuffer.wrap(buffer, 0, chunk), offset + written);
+                        written += chunk;
+                    }
+                }
+            }
+
+            // Optional truncation extension after EOF
+            byte[] truncate = in.readNBytes(3);
+            if (truncate.length == 3) {
+                out.truncate(((truncate[0] & 0xFF) << 16) | ((truncate[1] & 0xFF) << 8) | (truncate[2] & 0xFF));
+            }
+        } catch (EOFException e) {
+            throw new IOException("IPS patch is truncated", e);
+        }
+    }
+
+    private static void applyBps(ByteBuffer source, Path patch, Path target) throws IOException {
+        Footer footer = readBpsFooter(patch);
+        if (crc32(source) != footer.sourceCrc32()) {
+            throw new ChecksumMismatchException("Source ROM does not match the patch (CRC32 mismatch)");
+        }
+
+        long actionsEnd = Files.size(patch) - BPS_FOOTER_SIZE;
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(patch)));
+        try (DataInputStream in = new DataInputStream(counter);
+                FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            in.skipNBytes(BPS_MAGIC.length);
+            long sourceSize = readVarint(in);
+            long targetSize = readVarint(in);
+            in.skipNBytes(readVarint(in)); // metadata
+
+            if (sourceSize != source.capacity()) {
+                throw new ChecksumMismatchException("Source ROM size does not match the patch");
+            }
+            MappedByteBuffer output = out.map(FileChannel.MapMode.READ_WRITE, 0, targetSize);
+
+            int outputOffset = 0;
+            int sourceRelative = 0;
+            int targetRelative = 0;
+            while (counter.position() < actionsEnd) {
+                long command = readVarint(in);
+                int length = (int) (command >>> 2) + 1;
+                switch ((int) (command & 3)) {
+                    case 0 -> { // SourceRead
+                        output.put(outputOffset, source, outputOffset, length);
+                        outputOffset += length;
+                    }
+                    case 1 -> { // TargetRead
+                        for (int i = 0; i < length; i++) {
+                            output.put(outputOffset++, in.readByte());
+                        }
+                    }
+                    case 2 -> { // SourceCopy
+                        sourceRelative += readSignedVarint(in);
+                        output.put(outputOffset, source, sourceRelative, length);
+                        outputOffset += length;
+                        sourceRelative += length;
+                    }
+                    default -> { // TargetCopy, may overlap the bytes being written
+                        targetRelative += readSignedVarint(in);
+                        for (int i = 0; i < length; i++) {
+                            output.put(outputOffset++, output.get(targetRelative++));
+                        }
+                    }
+                }
+            }
+
+            if (crc32(output) != footer.targetCrc32()) {
+                throw new ChecksumMismatchException("Patched ROM failed verification (CRC32 mismatch)");
+            }
+            output.force();
+        } catch (EOFException | IndexOutOfBoundsException e) {
+            throw new IOException("BPS patch is corrupt", e);
+        }
+    }
+
+    private static int readUInt24(DataInputStream in) throws IOException {
+        return (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8) | in.readUnsignedByte();
+    }
+
+    public static class ChecksumMismatchException extends IOException {
+        public ChecksumMismatchException(String message) {
+            super(message);
+        }
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long data = 0;
+        long shift = 1;
+        while (true) {
+            int x = in.readUnsignedByte();
+            data += (x & 0x7F) * shift;
+            if ((x & 0x80) != 0) {
+                return data;
+            }
+            shift <<= 7;
+            data += shift;
+        }
+    }
+
+    private static int readSignedVarint(DataInputStream in) throws IOException {
+        long value = readVarint(in);
+        return (int) ((value & 1) != 0 ? -(value >>> 1) : (value >>> 1));
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long position;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long position() {
+            return position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                position++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            position += skipped;
+            return skipped;
+        }
+    }
+}
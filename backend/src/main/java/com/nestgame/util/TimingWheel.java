@@ -0,0 +1,87 @@
+package com.nestgame.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single-level timing wheel for keys that all share the same timeout.
+ *
+ * Touching a key moves it to the slot {@code timeout} ticks ahead; each
+ * {@link #advance} call expires the slots it passes. Both are O(1) per key,
+ * unlike a priority queue where every touch is a remove plus an insert.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final List<Set<K>> slots;
+    private final Map<K, Integer> slotOf = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * @param tickMillis    resolution of the wheel
+     * @param timeoutMillis idle time after which a key expires, rounded up to whole ticks
+     */
+    public TimingWheel(long tickMillis, long timeoutMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        int ticks = (int) ((timeoutMillis + tickMillis - 1) / tickMillis);
+        this.slots = new ArrayList<>(ticks + 1);
+        for (int i = 0; i <= ticks; i++) {
+            slots.add(new HashSet<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedule or reschedule expiry of {@code key} one timeout from now
+     */
+    public synchronized void touch(K key) {
+        Integer previous = slotOf.get(key);
+        int slot = (int) ((currentTick + slots.size() - 1) % slots.size());
+        if (previous != null) {
+            if (previous == slot) {
+                return;
+            }
+            slots.get(previous).remove(key);
+        }
+        slots.get(slot).add(key);
+        slotOf.put(key, slot);
+    }
+
+    public synchronized void remove(K key) {
+        Integer slot = slotOf.remove(key);
+        if (slot != null) {
+            slots.get(slot).remove(key);
+        }
+    }
+
+    /**
+     * Move the wheel to {@code nowMillis}
+     *
+     * @return keys whose timeout elapsed
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        // A gap longer than the wheel expires everything once
+        long steps = Math.min(targetTick - currentTick, slots.size());
+        for (long i = 0; i < steps; i++) {
+            currentTick++;
+            Set<K> slot = slots.get((int) ((currentTick + slots.size() - 1) % slots.size()));
+            for (K key : slot) {
+                slotOf.remove(key);
+                expired.add(key);
+            }
+            slot.clear();
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    public synchronized int size() {
+        return slotOf.size();
+    }
+}
@@ -0,0 +1,100 @@
+package com.nestgame.websocket;
+
+import com.nestgame.entity.User;
+import com.nestgame.repository.GameRepository;
+import com.nestgame.service.JwtService;
+import com.nestgame.service.NetplayService;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Authenticates WebSocket handshakes. Browsers cannot set headers on a
+ * WebSocket request, so the access token comes in the {@code token} query
+ * parameter alongside {@code gameId}, an optional private room {@code code}
+ * and {@code mode=solo} for a broadcast-only session.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final int MAX_CODE_LENGTH = 32;
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final GameRepository gameRepository;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams();
+
+        User user = authenticate(params.getFirst("token"));
+        if (user == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        Long gameId = parseGameId(params.getFirst("gameId"));
+        String code = params.getFirst("code");
+        if (gameId == null || !gameRepository.existsById(gameId)
+                || (code != null && (code.isBlank() || code.length() > MAX_CODE_LENGTH))) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return false;
+        }
+
+        attributes.put(NetplayService.USER_ATTRIBUTE, user);
+        attributes.put(NetplayService.GAME_ATTRIBUTE, gameId);
+        if (code != null) {
+            attributes.put(NetplayService.CODE_ATTRIBUTE, code);
+        }
+        if ("solo".equals(params.getFirst("mode"))) {
+            attributes.put(NetplayService.SOLO_ATTRIBUTE, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    /**
+     * The user a valid access token belongs to, or null
+     */
+    User authenticate(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String username = jwtService.extractUsername(token);
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (jwtService.isTokenValid(token, userDetails) && userDetails instanceof User user) {
+                return user;
+            }
+        } catch (JwtException | IllegalArgumentException | UsernameNotFoundException e) {
+            // fall through
+        }
+        return null;
+    }
+
+    private Long parseGameId(String value) {
+        try {
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.nestgame.websocket;
+
+import com.nestgame.service.NetplayService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+/**
+ * WebSocket endpoint for two-player netplay; see {@link NetplayService}
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NetplayHandler extends BinaryWebSocketHandler {
+
+    private final NetplayService netplayService;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        netplayService.join(session);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        netplayService.relay(session, message);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Netplay transport error on {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        netplayService.leave(session);
+    }
+}
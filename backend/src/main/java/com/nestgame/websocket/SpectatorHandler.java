@@ -0,0 +1,47 @@
+package com.nestgame.websocket;
+
+import com.nestgame.service.SpectatorService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+/**
+ * WebSocket endpoint for watching a netplay room; see {@link SpectatorService}.
+ * {@link SpectatorHandshakeInterceptor} has already checked access to the
+ * room. Spectators only receive, anything they send is ignored.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SpectatorHandler extends BinaryWebSocketHandler {
+
+    private final SpectatorService spectatorService;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        Object roomId = session.getAttributes().get(SpectatorHandshakeInterceptor.ROOM_ATTRIBUTE);
+        if (roomId instanceof Long id) {
+            spectatorService.subscribe(session, id);
+        } else {
+            session.close(CloseStatus.POLICY_VIOLATION);
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Spectator transport error on {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        spectatorService.unsubscribe(session);
+    }
+}
@@ -0,0 +1,65 @@
+package com.nestgame.websocket;
+
+import com.nestgame.entity.User;
+import com.nestgame.service.NetplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Checks that a spectator may watch the requested {@code roomId}. Public
+ * rooms are open to anyone; a private room needs its {@code code}, or the
+ * {@code token} of one of its players.
+ */
+@Component
+@RequiredArgsConstructor
+public class SpectatorHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String ROOM_ATTRIBUTE = "spectator.roomId";
+
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final NetplayService netplayService;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams();
+
+        Long roomId = parseRoomId(params.getFirst("roomId"));
+        if (roomId == null) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return false;
+        }
+
+        User user = jwtHandshakeInterceptor.authenticate(params.getFirst("token"));
+        if (!netplayService.canWatch(roomId, user, params.getFirst("code"))) {
+            // Same answer for a missing and a forbidden room, so codes cannot be probed for rooms
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+
+        attributes.put(ROOM_ATTRIBUTE, roomId);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private Long parseRoomId(String value) {
+        try {
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
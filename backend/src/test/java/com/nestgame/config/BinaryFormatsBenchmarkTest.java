@@ -0,0 +1,126 @@
+package com.nestgame.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nestgame.dto.GameDTO;
+import com.nestgame.dto.GamePageDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares JSON, CBOR and Smile for /games pages of 12, 48 and 500 games:
+ * encoded size and encode time. The games are generated from a fixed seed,
+ * so the sizes are the same on every run.
+ */
+class BinaryFormatsBenchmarkTest {
+
+    private static final int[] PAGE_SIZES = { 12, 48, 500 };
+    private static final long SEED = 45;
+    private static final int WARMUP = 1_000;
+    private static final int ITERATIONS = 2_000;
+
+    private static final String[] CATEGORIES = { "Action", "Adventure", "Platformer", "Puzzle", "RPG", "Shooter",
+            "Sports", "Racing", "Fighting", "Strategy" };
+    private static final String[] REGIONS = { "USA", "Japan", "Europe", "World" };
+    private static final String[] WORDS = { "Super", "Mega", "Dragon", "Quest", "Castle", "Ninja", "Star", "Warrior",
+            "Legend", "Adventure", "Island", "Kid", "Force", "Fighter", "Tales", "Double", "Contra", "Mario", "Zelda",
+            "Metal", "Gear", "Punch", "Blaster", "Rescue", "Turbo", "Battle", "Kingdom", "Shadow", "Crystal", "Moon" };
+
+    // As in BinaryFormatsConfig, from a builder like the one Spring Boot provides
+    private final ObjectMapper json = builder().build();
+    private final ObjectMapper cbor = new BinaryFormatsConfig().cborHttpMessageConverter(builder()).getObjectMapper();
+    private final ObjectMapper smile = new BinaryFormatsConfig().smileHttpMessageConverter(builder()).getObjectMapper();
+
+    @Test
+    void comparesFormatsAcrossPageSizes() throws Exception {
+        System.out.printf("%-6s %-6s %9s %7s %12s%n", "games", "format", "bytes", "vs json", "encode (us)");
+        for (int pageSize : PAGE_SIZES) {
+            GamePageDTO page = new GamePageDTO(games(pageSize), 0, pageSize, true, 10_000L, true);
+            int jsonSize = report(pageSize, "json", json, page, -1);
+            int cborSize = report(pageSize, "cbor", cbor, page, jsonSize);
+            int smileSize = report(pageSize, "smile", smile, page, jsonSize);
+
+            assertTrue(cborSize < jsonSize, "CBOR smaller than JSON for " + pageSize + " games");
+            assertTrue(smileSize < jsonSize, "Smile smaller than JSON for " + pageSize + " games");
+        }
+    }
+
+    @Test
+    void generatesTheSamePagesOnEveryRun() throws Exception {
+        for (int pageSize : PAGE_SIZES) {
+            assertArrayEquals(json.writeValueAsBytes(games(pageSize)), json.writeValueAsBytes(games(pageSize)));
+        }
+    }
+
+    private static int report(int pageSize, String format, ObjectMapper mapper, GamePageDTO page, int jsonSize)
+            throws Exception {
+        int size = mapper.writeValueAsBytes(page).length;
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValueAsBytes(page);
+        }
+        int iterations = Math.max(100, ITERATIONS * 12 / pageSize);
+        long begin = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValueAsBytes(page);
+        }
+        double micros = (System.nanoTime() - begin) / 1e3 / iterations;
+        System.out.printf("%-6d %-6s %9d %6.0f%% %12.1f%n", pageSize, format, size,
+                jsonSize > 0 ? 100.0 * size / jsonSize : 100.0, micros);
+        return size;
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Games shaped like the catalog's, the same for a given count on every run
+     */
+    private static List<GameDTO> games(int count) {
+        Random random = new Random(SEED);
+        LocalDateTime created = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<GameDTO> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = i + 1;
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + (random.nextInt(3) == 0 ? " " + (2 + random.nextInt(3)) : "");
+            String fileName = name.replace(' ', '_') + ".nes";
+            String boxArt = "https://thumbnails.libretro.com/Nintendo%20-%20Nintendo%20Entertainment%20System/"
+                    + "Named_Boxarts/" + name.replace(" ", "%20") + ".png";
+            int category = random.nextInt(CATEGORIES.length);
+            games.add(GameDTO.builder()
+                    .id(id)
+                    .name(name)
+                    .fileName(fileName)
+                    .path("/roms/" + fileName)
+                    .category(CATEGORIES[category].toLowerCase())
+                    .categoryId((long) category + 1)
+                    .categoryName(CATEGORIES[category])
+                    .description(random.nextBoolean() ? null : "A classic " + CATEGORIES[category].toLowerCase()
+                            + " game for the NES.")
+                    .rating(Math.round(random.nextDouble() * 50) / 10.0)
+                    .year(1983 + random.nextInt(12))
+                    .region(REGIONS[random.nextInt(REGIONS.length)])
+                    .isFeatured(random.nextInt(10) == 0)
+                    .imageUrl(boxArt)
+                    .imageSnap(boxArt.replace("Named_Boxarts", "Named_Snaps"))
+                    .imageTitle(boxArt.replace("Named_Boxarts", "Named_Titles"))
+                    .thumbnailUrl("/api/images/games/" + id + "/box/small")
+                    .thumbnailSnap("/api/images/games/" + id + "/snap/small")
+                    .thumbnailTitle("/api/images/games/" + id + "/title/small")
+                    .playCount(random.nextInt(5_000))
+                    .createdAt(created.plusMinutes(random.nextInt(500_000)))
+                    .updatedAt(created.plusMinutes(500_000 + random.nextInt(100_000)))
+                    .build());
+        }
+        return games;
+    }
+}
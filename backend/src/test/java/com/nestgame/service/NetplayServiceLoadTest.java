@@ -0,0 +1,219 @@
+package com.nestgame.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nestgame.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives thousands of concurrent netplay rooms through the relay at 60
+ * frames per player, with in-memory sessions instead of sockets, and checks
+ * that every input frame reaches the peer exactly once.
+ */
+class NetplayServiceLoadTest {
+
+    private static final int ROOMS = 5_000;
+    private static final int FRAMES_PER_PLAYER = 600; // 10 seconds of play
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private ExecutorService spectatorExecutor;
+    private NetplayService netplayService;
+
+    @BeforeEach
+    void setUp() {
+        spectatorExecutor = Executors.newFixedThreadPool(2);
+        SpectatorService spectatorService = new SpectatorService(spectatorExecutor);
+        ReflectionTestUtils.setField(spectatorService, "batchFrames", 8);
+        ReflectionTestUtils.setField(spectatorService, "queueCapacity", 64);
+        ReflectionTestUtils.setField(spectatorService, "historyLimit", 262_144);
+        ReflectionTestUtils.setField(spectatorService, "totalHistoryLimit", 268_435_456L);
+        ReflectionTestUtils.setField(spectatorService, "maxPerRoom", 5_000);
+        ReflectionTestUtils.setField(spectatorService, "sendTimeout", 2_000L);
+
+        netplayService = new NetplayService(new ObjectMapper(), spectatorService);
+        ReflectionTestUtils.setField(netplayService, "maxRooms", ROOMS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        spectatorExecutor.shutdownNow();
+    }
+
+    @Test
+    void relaysEveryFrameAcrossThousandsOfRooms() throws Exception {
+        List<FakeSession> sessions = new ArrayList<>(ROOMS * 2);
+        for (int i = 0; i < ROOMS * 2; i++) {
+            FakeSession session = new FakeSession("s" + i);
+            session.getAttributes().put(NetplayService.USER_ATTRIBUTE,
+                    User.builder().id((long) i).username("player" + i).build());
+            // Consecutive players of the same game are paired into one room
+            session.getAttributes().put(NetplayService.GAME_ATTRIBUTE, (long) (i / 2));
+            netplayService.join(session);
+            sessions.add(session);
+        }
+        assertEquals(ROOMS, netplayService.getRooms(null).size());
+
+        ExecutorService players = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int first = t;
+            results.add(players.submit(() -> {
+                start.await();
+                // Frames of one session come from one thread, as with a WebSocket container
+                for (int frame = 1; frame <= FRAMES_PER_PLAYER; frame++) {
+                    for (int i = first; i < sessions.size(); i += THREADS) {
+                        netplayService.relay(sessions.get(i), input(frame));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        players.shutdown();
+
+        long relayed = (long) sessions.size() * FRAMES_PER_PLAYER;
+        System.out.printf("Netplay relay: %d rooms, %d frames in %d ms (%.0f frames/s, %.2f us/frame)%n",
+                ROOMS, relayed, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                relayed / (elapsed / 1e9), elapsed / 1e3 / relayed * THREADS);
+
+        for (FakeSession session : sessions) {
+            assertEquals(FRAMES_PER_PLAYER, session.framesReceived.get(), "frames received by " + session.getId());
+        }
+    }
+
+    private static BinaryMessage input(int sequence) {
+        ByteBuffer frame = ByteBuffer.allocate(NetplayService.FRAME_SIZE);
+        frame.put(0, (byte) 1).putShort(2, (short) (sequence & 0xFF)).putInt(4, sequence);
+        return new BinaryMessage(frame);
+    }
+
+    /** Session that counts the input frames sent to it. */
+    private static final class FakeSession implements WebSocketSession {
+
+        private final String id;
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private final AtomicLong framesReceived = new AtomicLong();
+        private volatile boolean open = true;
+
+        FakeSession(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            if (message instanceof BinaryMessage binary && binary.getPayload().get(0) == 1) {
+                framesReceived.incrementAndGet();
+            }
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            open = false;
+        }
+
+        @Override
+        public URI getUri() {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return HttpHeaders.EMPTY;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+    }
+}
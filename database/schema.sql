@@ -4,6 +4,19 @@
 -- ========================================
 
 -- Drop existing tables (in reverse dependency order)
+DROP TABLE IF EXISTS catalog_changes CASCADE;
+DROP TABLE IF EXISTS user_changes CASCADE;
+DROP TABLE IF EXISTS user_change_versions CASCADE;
+DROP TABLE IF EXISTS user_game_stats CASCADE;
+DROP TABLE IF EXISTS user_stat_buckets CASCADE;
+DROP TABLE IF EXISTS user_stats CASCADE;
+DROP TABLE IF EXISTS play_sessions CASCADE;
+DROP TABLE IF EXISTS game_scores CASCADE;
+DROP TABLE IF EXISTS replay_keyframes CASCADE;
+DROP TABLE IF EXISTS replays CASCADE;
+DROP TABLE IF EXISTS save_chunks CASCADE;
+DROP TABLE IF EXISTS save_states CASCADE;
+DROP TABLE IF EXISTS game_patches CASCADE;
 DROP TABLE IF EXISTS password_reset_otp CASCADE;
 DROP TABLE IF EXISTS password_reset_tokens CASCADE;
 DROP TABLE IF EXISTS refresh_tokens CASCADE;
@@ -90,6 +103,7 @@ CREATE TABLE play_history (
 );
 
 CREATE INDEX idx_play_history_user ON play_history(user_id);
+CREATE UNIQUE INDEX uq_play_history_user_game ON play_history(user_id, game_id);  -- Mỗi game một dòng / user
 CREATE INDEX idx_play_history_game ON play_history(game_id);
 CREATE INDEX idx_play_history_played_at ON play_history(played_at DESC);
 
@@ -147,6 +161,162 @@ CREATE INDEX idx_game_comments_user ON game_comments(user_id);
 CREATE INDEX idx_game_comments_game ON game_comments(game_id);
 CREATE INDEX idx_game_comments_created_at ON game_comments(created_at DESC);
 
+-- 10. TABLE: game_patches (IPS/BPS patches, e.g. bản dịch tiếng Việt)
+CREATE TABLE game_patches (
+    id BIGSERIAL PRIMARY KEY,
+    game_id BIGINT NOT NULL REFERENCES games(id) ON DELETE CASCADE,
+    name VARCHAR(255) NOT NULL,
+    language VARCHAR(20),                   -- vi, en, ...
+    format VARCHAR(10) NOT NULL,            -- IPS, BPS
+    patch_hash VARCHAR(64) NOT NULL,        -- SHA-256 của file patch
+    source_crc32 BIGINT,                    -- CRC32 của ROM gốc (BPS tự chứa)
+    size_bytes BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_game_patches_game ON game_patches(game_id);
+
+-- 11. TABLE: save_states (Save state trên cloud, nội dung nằm trong save_chunks)
+CREATE TABLE save_states (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    game_id BIGINT NOT NULL REFERENCES games(id) ON DELETE CASCADE,
+    slot INTEGER NOT NULL,
+    size_bytes BIGINT NOT NULL,             -- Kích thước gốc (chưa nén)
+    chunk_count INTEGER NOT NULL,
+    chunk_hashes BYTEA NOT NULL,            -- Các SHA-256 (32 byte) nối tiếp theo thứ tự
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(user_id, game_id, slot)
+);
+
+-- 12. TABLE: save_chunks (Chunk đã khử trùng lặp, file nén nằm trên đĩa)
+CREATE TABLE save_chunks (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    hash VARCHAR(64) NOT NULL,              -- SHA-256 của dữ liệu gốc
+    stored_size INTEGER NOT NULL,           -- Kích thước sau khi nén
+    ref_count INTEGER NOT NULL DEFAULT 0,   -- Số save state đang dùng chunk
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, hash)
+);
+
+-- 13. TABLE: replays (Bản ghi input theo frame, file nén nằm trên đĩa)
+CREATE TABLE replays (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    game_id BIGINT NOT NULL REFERENCES games(id) ON DELETE CASCADE,
+    title VARCHAR(255),
+    ports SMALLINT NOT NULL,                -- Số byte input mỗi frame (1 hoặc 2 tay cầm)
+    frame_count BIGINT NOT NULL,
+    size_bytes BIGINT NOT NULL,             -- Kích thước file đã mã hóa
+    seek_index BYTEA NOT NULL,              -- Các điểm khởi động lại (frame, offset) dạng varint
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_replays_game ON replays(game_id, created_at DESC);
+CREATE INDEX idx_replays_user ON replays(user_id, created_at DESC);
+
+-- 14. TABLE: replay_keyframes (Keyframe của replay, save state được sao chép thành file riêng của replay)
+CREATE TABLE replay_keyframes (
+    id BIGSERIAL PRIMARY KEY,
+    replay_id BIGINT NOT NULL REFERENCES replays(id) ON DELETE CASCADE,
+    frame BIGINT NOT NULL,
+    state_size BIGINT,                      -- Kích thước save state đã sao chép (NULL = không có)
+    UNIQUE(replay_id, frame)
+);
+
+-- 15. TABLE: game_scores (Điểm cao nhất của mỗi user cho mỗi game trong từng ngày)
+CREATE TABLE game_scores (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    game_id BIGINT NOT NULL REFERENCES games(id) ON DELETE CASCADE,
+    score_date DATE NOT NULL,               -- Ngày đạt điểm (bảng xếp hạng ngày)
+    score BIGINT NOT NULL,
+    achieved_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(user_id, game_id, score_date)
+);
+
+CREATE INDEX idx_game_scores_game ON game_scores(game_id, score_date);
+
+-- 16. TABLE: play_sessions (Phiên chơi đã kết thúc, phân vùng theo tháng)
+-- Partition của từng tháng (play_sessions_yyyy_MM) được backend tạo khi cần
+CREATE TABLE play_sessions (
+    id BIGSERIAL,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    game_id BIGINT NOT NULL REFERENCES games(id) ON DELETE CASCADE,
+    started_at TIMESTAMP NOT NULL,
+    ended_at TIMESTAMP NOT NULL,
+    duration_seconds INTEGER NOT NULL,      -- Thời gian chơi thực tế (giây)
+    heartbeats INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, started_at)
+) PARTITION BY RANGE (started_at);
+
+CREATE INDEX idx_play_sessions_user ON play_sessions(user_id, started_at DESC);
+
+-- 17. TABLE: user_stats (Thống kê tổng hợp của user, cập nhật dần theo delta)
+CREATE TABLE user_stats (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    total_plays BIGINT NOT NULL DEFAULT 0,  -- Số phiên chơi
+    total_seconds BIGINT NOT NULL DEFAULT 0,
+    first_played_on DATE,
+    last_played_on DATE,
+    current_streak INTEGER NOT NULL DEFAULT 0,  -- Số ngày liên tiếp tính đến last_played_on
+    longest_streak INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 18. TABLE: user_stat_buckets (Thống kê theo category / region / year)
+CREATE TABLE user_stat_buckets (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    dimension VARCHAR(16) NOT NULL,         -- category, region, year
+    bucket VARCHAR(100) NOT NULL,
+    plays BIGINT NOT NULL DEFAULT 0,
+    seconds BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, dimension, bucket)
+);
+
+-- 19. TABLE: user_game_stats (Thống kê của user cho từng game)
+CREATE TABLE user_game_stats (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    game_id BIGINT NOT NULL REFERENCES games(id) ON DELETE CASCADE,
+    plays BIGINT NOT NULL DEFAULT 0,
+    seconds BIGINT NOT NULL DEFAULT 0,
+    last_played_at TIMESTAMP,
+    PRIMARY KEY (user_id, game_id)
+);
+
+CREATE INDEX idx_user_game_stats_top ON user_game_stats(user_id, seconds DESC);
+
+-- 20. TABLE: user_change_versions (Version đồng bộ hiện tại của mỗi user)
+CREATE TABLE user_change_versions (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    version BIGINT NOT NULL DEFAULT 0,          -- Version của thay đổi mới nhất
+    compacted_through BIGINT NOT NULL DEFAULT 0 -- Các version <= giá trị này đã bị xóa khỏi log
+);
+
+-- 21. TABLE: user_changes (Log thay đổi favorites / history / ratings để delta sync)
+CREATE TABLE user_changes (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    version BIGINT NOT NULL,
+    family VARCHAR(10) NOT NULL,            -- favorite, history, rating
+    game_id BIGINT NOT NULL,
+    removed BOOLEAN NOT NULL DEFAULT FALSE, -- TRUE: game bị xóa khỏi danh sách
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, version)
+);
+
+CREATE INDEX idx_user_changes_game ON user_changes(user_id, family, game_id, version);
+CREATE INDEX idx_user_changes_created_at ON user_changes(created_at);
+
+-- 22. TABLE: catalog_changes (Log thay đổi game cho client và các node khác đồng bộ)
+CREATE TABLE catalog_changes (
+    seq BIGSERIAL PRIMARY KEY,
+    game_id BIGINT NOT NULL,                -- Không có FK: game có thể đã bị xóa
+    deleted BOOLEAN NOT NULL DEFAULT FALSE, -- TRUE: game bị xóa
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_catalog_changes_created_at ON catalog_changes(created_at);
+
 -- ========================================
 -- INSERT DEFAULT DATA
 -- ========================================
@@ -24,6 +24,9 @@ export default function FavoritesPage() {
     const [isModalOpen, setIsModalOpen] = useState(false);
 
     useEffect(() => {
+        // Library version the list was loaded at; 0 always gets a full resync
+        let version = 0;
+
         const loadFavorites = async () => {
             if (!user) {
                 setFavoriteGames([]);
@@ -33,6 +36,9 @@ export default function FavoritesPage() {
 
             setIsLoading(true);
             try {
+                // Version first, so changes made while the list loads show up in the next sync
+                const changes = await userService.getLibraryChanges(0).catch(() => null);
+                version = changes?.version ?? 0;
                 const favs = await userService.getFavorites();
                 setFavoriteGames(favs);
             } catch (error) {
@@ -43,13 +49,32 @@ export default function FavoritesPage() {
             }
         };
 
+        // Only reload the list when favorites changed, e.g. in another tab
+        const syncFavorites = async () => {
+            if (!user) return;
+            try {
+                const changes = await userService.getLibraryChanges(version);
+                if (!changes) return;
+                version = changes.version;
+                if (changes.full || changes.favoritesAdded.length > 0) {
+                    setFavoriteGames(await userService.getFavorites());
+                } else if (changes.favoritesRemoved.length > 0) {
+                    const removed = new Set(changes.favoritesRemoved.map(String));
+                    setFavoriteGames(prev => prev.filter(g => !removed.has(String(g.id))));
+                }
+            } catch (error) {
+                console.error('Failed to sync favorites:', error);
+            }
+        };
+
         loadFavorites();
 
-        const handleStorageUpdate = () => {
-            loadFavorites();
+        window.addEventListener('favorites-updated', syncFavorites);
+        window.addEventListener('focus', syncFavorites);
+        return () => {
+            window.removeEventListener('favorites-updated', syncFavorites);
+            window.removeEventListener('focus', syncFavorites);
         };
-        window.addEventListener('favorites-updated', handleStorageUpdate);
-        return () => window.removeEventListener('favorites-updated', handleStorageUpdate);
 
     }, [user]);
 
@@ -24,11 +24,17 @@ export default function HistoryPage() {
     const [isModalOpen, setIsModalOpen] = useState(false);
 
     useEffect(() => {
+        // Library version the history was loaded at; 0 always gets a full resync
+        let version = 0;
+
         const loadHistory = async () => {
             setIsLoading(true);
             try {
                 if (user) {
                     // Use API for authenticated users (max 15 games)
+                    // Version first, so changes made while the list loads show up in the next sync
+                    const changes = await userService.getLibraryChanges(0).catch(() => null);
+                    version = changes?.version ?? 0;
                     const history = await userService.getPlayHistory();
                     setRecentGames(history);
                 } else {
@@ -53,7 +59,25 @@ export default function HistoryPage() {
             }
         };
 
+        // Games played in another tab show up when coming back, without refetching an unchanged list
+        const syncHistory = async () => {
+            if (!user) return;
+            try {
+                const changes = await userService.getLibraryChanges(version);
+                if (!changes) return;
+                version = changes.version;
+                if (changes.full || changes.played.length > 0 || changes.historyRemoved.length > 0) {
+                    setRecentGames(await userService.getPlayHistory());
+                }
+            } catch (error) {
+                console.error('Failed to sync history:', error);
+            }
+        };
+
         loadHistory();
+
+        window.addEventListener('focus', syncHistory);
+        return () => window.removeEventListener('focus', syncHistory);
     }, [allGames, setGames, user]);
 
     const handleGameClick = (game: Game) => {
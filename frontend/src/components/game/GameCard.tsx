@@ -6,7 +6,7 @@ import { Play, Star, Heart, Sparkles, LogIn, Info } from 'lucide-react';
 import { Game } from '@/types';
 import { cn } from '@/lib/utils';
 import { imageService } from '@/services/imageService';
-import { userService } from '@/services/userService';
+import { userService, GameOverlay } from '@/services/userService';
 import { useLanguage } from '@/components/providers/LanguageProvider';
 import { useAuth } from '@/components/providers/AuthProvider';
 import { useToast } from '@/components/providers/ToastProvider';
@@ -18,9 +18,11 @@ interface GameCardProps {
   onClick?: () => void;
   onLoginRequired?: () => void;
   priority?: boolean;
+  // Per-user state loaded by the parent for the whole page; undefined makes the card load it itself
+  overlay?: GameOverlay | null;
 }
 
-export function GameCard({ game, onPlayClick, onDetailsClick, onLoginRequired, priority = false, onClick }: GameCardProps) {
+export function GameCard({ game, onPlayClick, onDetailsClick, onLoginRequired, priority = false, onClick, overlay }: GameCardProps) {
   const { t } = useLanguage();
   const { user } = useAuth();
   const { showToast } = useToast();
@@ -34,8 +36,19 @@ export function GameCard({ game, onPlayClick, onDetailsClick, onLoginRequired, p
   const [isAnimating, setIsAnimating] = useState(false);
   const [showLoginTooltip, setShowLoginTooltip] = useState(false);
 
+  const usesOverlay = overlay !== undefined;
+
+  // Favorite status from the parent's overlay
+  useEffect(() => {
+    if (usesOverlay) {
+      setIsFavorite(!!user && !!overlay?.favorite);
+    }
+  }, [overlay, usesOverlay, user]);
+
   // Load favorite status from API when user is logged in
   useEffect(() => {
+    if (usesOverlay) return;
+
     const loadFavoriteStatus = async () => {
       if (user) {
         try {
@@ -58,7 +71,7 @@ export function GameCard({ game, onPlayClick, onDetailsClick, onLoginRequired, p
 
     window.addEventListener('favorites-updated', handleFavoritesUpdate);
     return () => window.removeEventListener('favorites-updated', handleFavoritesUpdate);
-  }, [game.id, user]);
+  }, [game.id, user, usesOverlay]);
 
   const handleFavoriteClick = async (e: React.MouseEvent) => {
     e.stopPropagation();
@@ -245,6 +258,17 @@ export function GameCard({ game, onPlayClick, onDetailsClick, onLoginRequired, p
         <div className="flex items-center justify-between text-xs text-muted-foreground">
           <span className="font-mono-tech">{game.year || 'Classic'}</span>
           <div className="flex items-center gap-2">
+            {user && overlay?.rating && (
+              <span className="flex items-center gap-0.5 text-yellow-400" title="Đánh giá của bạn">
+                <Star className="w-3 h-3 fill-current" />
+                <span className="font-mono-tech">{overlay.rating}</span>
+              </span>
+            )}
+            {user && overlay?.lastPlayedAt && (
+              <span className="text-cyan-400" title={`Chơi lần cuối: ${new Date(overlay.lastPlayedAt).toLocaleDateString()}`}>
+                <Play className="w-3 h-3 fill-current" />
+              </span>
+            )}
             {user && isFavorite && (
               <span className="text-rose-500 animate-in fade-in duration-300">
                 <Heart className="w-3 h-3 fill-current" />
@@ -1,6 +1,6 @@
 'use client';
 
-import { useState } from 'react';
+import { useState, useEffect } from 'react';
 import { useGameStore } from '@/features/games/store/gameStore';
 import { GameCard } from './GameCard';
 import { GameModal } from './GameModal';
@@ -11,6 +11,8 @@ import { Button } from '@/components/ui/button';
 import { PERFORMANCE_CONFIG } from '@/config/categories';
 import { cn } from '@/lib/utils';
 import { useLanguage } from '@/components/providers/LanguageProvider';
+import { useAuth } from '@/components/providers/AuthProvider';
+import { userService, GameOverlay } from '@/services/userService';
 
 export function GameGrid() {
   const { t } = useLanguage();
@@ -29,6 +31,23 @@ export function GameGrid() {
   const games = getCurrentPageGames();
   const totalPages = getTotalPages();
 
+  // Per-user badges for the whole page in one request
+  const { user } = useAuth();
+  const [overlay, setOverlay] = useState<Record<string, GameOverlay> | null>(null);
+  const pageIds = games.map(g => String(g.id)).join(',');
+
+  useEffect(() => {
+    if (!user || !pageIds) {
+      setOverlay(null);
+      return;
+    }
+    let cancelled = false;
+    userService.getOverlay(pageIds.split(','))
+      .then(result => { if (!cancelled) setOverlay(result); })
+      .catch(err => console.error('Failed to load overlay:', err));
+    return () => { cancelled = true; };
+  }, [user, pageIds]);
+
   const handlePlayClick = (game: Game) => {
     setSelectedGame(game);
     setIsPlayModalOpen(true);
@@ -115,6 +134,7 @@ export function GameGrid() {
             onPlayClick={() => handlePlayClick(game)}
             onDetailsClick={() => handleDetailsClick(game)}
             priority={index < PERFORMANCE_CONFIG.IMAGE_PRIORITY_COUNT}
+            overlay={overlay ? overlay[String(game.id)] ?? null : undefined}
           />
         ))}
       </div>
@@ -68,6 +68,31 @@ export function GameModal({ game, isOpen, onClose }: GameModalProps) {
     };
   }, [isOpen, user, isLoading, isTrialEnded, error]);
 
+  // Play-session heartbeats while a logged-in user has the game running
+  useEffect(() => {
+    if (!isOpen || !user || isLoading || error) return;
+
+    let interval = 30;
+    let cancelled = false;
+    let heartbeatTimer: ReturnType<typeof setTimeout>;
+    const beat = async () => {
+      const next = await userService.sendHeartbeat(game.id).catch(() => null);
+      if (next) interval = next;
+      if (!cancelled) heartbeatTimer = setTimeout(beat, interval * 1000);
+    };
+    beat();
+
+    const handleUnload = () => userService.endSession(game.id);
+    window.addEventListener('pagehide', handleUnload);
+
+    return () => {
+      cancelled = true;
+      clearTimeout(heartbeatTimer);
+      window.removeEventListener('pagehide', handleUnload);
+      userService.endSession(game.id);
+    };
+  }, [isOpen, user, isLoading, error, game.id]);
+
   const loadGame = useCallback(async () => {
     if (!containerRef.current || !game.path) {
       setError('Game path not found');
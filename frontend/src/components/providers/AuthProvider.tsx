@@ -4,6 +4,7 @@ import { createContext, useContext, useState, useEffect, ReactNode } from 'react
 import { User, LoginRequest, RegisterRequest } from '@/types/auth';
 import { authService } from '@/services/authService';
 import { userService } from '@/services/userService';
+import { storageService } from '@/services/storageService';
 import { useRouter } from 'next/navigation';
 
 interface AuthContextType {
@@ -43,12 +44,22 @@ export function AuthProvider({ children }: { children: ReactNode }) {
             authService.setSession(response, rememberMe);
             setUser(response.user);
             setIsLoginModalOpen(false);
+            syncRecentGames();
         } catch (error) {
             console.error('Login failed', error);
             throw error;
         }
     };
 
+    // Games played as a guest are added to the account's history
+    const syncRecentGames = () => {
+        const plays = storageService.getUnsyncedPlays();
+        const syncedAt = new Date().toISOString();
+        userService.syncPlayHistory(plays)
+            .then(ok => { if (ok) storageService.markPlaysSynced(syncedAt); })
+            .catch(err => console.error('Failed to sync play history', err));
+    };
+
     const register = async (data: RegisterRequest) => {
         try {
             const response = await authService.register(data);
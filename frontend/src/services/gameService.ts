@@ -1,12 +1,25 @@
 import { Game, GameCategoryKey, SortOption } from '@/types';
 import gamesData from '@/data/games.json';
 
+const CATALOG_SNAPSHOT_URL = 'http://localhost:8080/api/catalog/snapshot';
+
 class GameService {
   private games: Game[] = [];
 
   async loadGames(): Promise<Game[]> {
     try {
-      // In production, this could be an API call
+      // The snapshot is revalidated by the browser cache with its ETag
+      const response = await fetch(CATALOG_SNAPSHOT_URL);
+      if (response.ok) {
+        const games: Game[] = await response.json();
+        this.games = games.map(game => ({ ...game, image: game.image ?? game.imageUrl }));
+        return this.games;
+      }
+    } catch (error) {
+      console.warn('Catalog snapshot unavailable, using bundled games:', error);
+    }
+
+    try {
       this.games = gamesData as unknown as Game[];
       return this.games;
     } catch (error) {
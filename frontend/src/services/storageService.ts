@@ -1,5 +1,7 @@
 class StorageService {
   private readonly RECENT_GAMES_KEY = 'nestgame_recent_games';
+  private readonly RECENT_PLAYED_AT_KEY = 'nestgame_recent_played_at';
+  private readonly RECENT_SYNCED_AT_KEY = 'nestgame_recent_synced_at';
   private readonly THEME_KEY = 'nestgame_theme';
   private readonly LANGUAGE_KEY = 'nestgame_language';
   private readonly MAX_RECENT_GAMES = 10;
@@ -33,6 +35,14 @@ class StorageService {
       recent = recent.slice(0, this.MAX_RECENT_GAMES);
 
       localStorage.setItem(this.RECENT_GAMES_KEY, JSON.stringify(recent));
+
+      // When each game was played, for syncing the list after login
+      const playedAt = this.getItem<Record<string, string>>(this.RECENT_PLAYED_AT_KEY, {});
+      const kept: Record<string, string> = { [gameId]: new Date().toISOString() };
+      recent.forEach(id => {
+        if (id !== gameId && playedAt[id]) kept[id] = playedAt[id];
+      });
+      this.setItem(this.RECENT_PLAYED_AT_KEY, kept);
     } catch (error) {
       console.error('Failed to add recent game:', error);
     }
@@ -41,6 +51,22 @@ class StorageService {
   clearRecentGames(): void {
     if (typeof window === 'undefined') return;
     localStorage.removeItem(this.RECENT_GAMES_KEY);
+    localStorage.removeItem(this.RECENT_PLAYED_AT_KEY);
+  }
+
+  // Recent plays not yet sent to the server
+  getUnsyncedPlays(): { gameId: string; playedAt: string }[] {
+    if (typeof window === 'undefined') return [];
+    const playedAt = this.getItem<Record<string, string>>(this.RECENT_PLAYED_AT_KEY, {});
+    const syncedAt = localStorage.getItem(this.RECENT_SYNCED_AT_KEY);
+    return Object.entries(playedAt)
+      .filter(([, at]) => !syncedAt || at > syncedAt)
+      .map(([gameId, at]) => ({ gameId, playedAt: at }));
+  }
+
+  markPlaysSynced(syncedAt: string): void {
+    if (typeof window === 'undefined') return;
+    localStorage.setItem(this.RECENT_SYNCED_AT_KEY, syncedAt);
   }
 
   // Favorites
@@ -12,6 +12,24 @@ export interface GameComment {
     createdAt: string;
 }
 
+export interface GameOverlay {
+    gameId: number;
+    favorite: boolean;
+    rating: number | null;
+    lastPlayedAt: string | null;
+}
+
+export interface LibraryChanges {
+    version: number;
+    full: boolean;
+    favoritesAdded: number[];
+    favoritesRemoved: number[];
+    played: number[];
+    historyRemoved: number[];
+    rated: number[];
+    ratingsRemoved: number[];
+}
+
 export const userService = {
     // Play History
     async recordPlayHistory(gameId: string | number): Promise<void> {
@@ -38,6 +56,102 @@ export const userService = {
         }
     },
 
+    // Send plays recorded while logged out in one request
+    async syncPlayHistory(plays: { gameId: string | number; playedAt: string }[]): Promise<boolean> {
+        const token = getToken();
+        if (!token || plays.length === 0) return false;
+
+        const response = await fetch(`${API_URL}/history/batch`, {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json',
+                'Authorization': `Bearer ${token}`
+            },
+            body: JSON.stringify({
+                plays: plays.map(p => ({
+                    gameId: typeof p.gameId === 'string' ? parseInt(p.gameId) : p.gameId,
+                    playedAt: p.playedAt,
+                })),
+            }),
+        });
+
+        if (!response.ok) {
+            console.error('Failed to sync play history');
+        }
+        return response.ok;
+    },
+
+    // Library changes since the last seen version; full means reload the lists
+    async getLibraryChanges(since: number): Promise<LibraryChanges | null> {
+        const token = getToken();
+        if (!token) return null;
+
+        const response = await fetch(`${API_URL}/sync?since=${since}`, {
+            headers: { 'Authorization': `Bearer ${token}` },
+        });
+
+        if (!response.ok) throw new Error('Failed to sync library');
+        return response.json();
+    },
+
+    // Favorite, own rating and last played time for a page of game cards
+    async getOverlay(gameIds: (string | number)[]): Promise<Record<string, GameOverlay>> {
+        const token = getToken();
+        if (!token || gameIds.length === 0) return {};
+
+        const response = await fetch(`${API_URL}/overlay`, {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json',
+                'Authorization': `Bearer ${token}`
+            },
+            body: JSON.stringify({
+                gameIds: gameIds.map(id => typeof id === 'string' ? parseInt(id) : id),
+            }),
+        });
+
+        if (!response.ok) throw new Error('Failed to fetch overlay');
+        const entries: GameOverlay[] = await response.json();
+        return Object.fromEntries(entries.map(e => [String(e.gameId), e]));
+    },
+
+    // Play sessions: the emulator sends a heartbeat while a game is open
+    async sendHeartbeat(gameId: string | number): Promise<number | null> {
+        const token = getToken();
+        if (!token) return null;
+
+        const numericId = typeof gameId === 'string' ? parseInt(gameId) : gameId;
+        const response = await fetch(`${API_URL}/sessions/heartbeat`, {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json',
+                'Authorization': `Bearer ${token}`
+            },
+            body: JSON.stringify({ gameId: numericId }),
+        });
+
+        if (!response.ok) return null;
+        const data = await response.json();
+        return data.heartbeatInterval ?? null;
+    },
+
+    endSession(gameId: string | number): void {
+        const token = getToken();
+        if (!token) return;
+
+        const numericId = typeof gameId === 'string' ? parseInt(gameId) : gameId;
+        // keepalive lets the request finish while the page is closing
+        fetch(`${API_URL}/sessions/end`, {
+            method: 'POST',
+            keepalive: true,
+            headers: {
+                'Content-Type': 'application/json',
+                'Authorization': `Bearer ${token}`
+            },
+            body: JSON.stringify({ gameId: numericId }),
+        }).catch(() => undefined);
+    },
+
     async getPlayHistory(): Promise<any[]> {
         const token = getToken();
         if (!token) return [];
@@ -124,7 +238,18 @@ export const userService = {
 
         const data = await response.json();
         if (!response.ok) throw new Error(data.message || 'Failed to upload avatar');
-        return data.avatarUrl;
+
+        // The backend processes avatars in the background; poll until the new URL is ready
+        for (let attempt = 0; attempt < 30; attempt++) {
+            await new Promise((resolve) => setTimeout(resolve, 1000));
+            const statusResponse = await fetch(`${API_URL}/avatar/status`, {
+                headers: { 'Authorization': `Bearer ${token}` },
+            });
+            const status = await statusResponse.json();
+            if (status.status === 'READY') return status.avatarUrl;
+            if (status.status === 'FAILED') throw new Error(status.message || 'Failed to upload avatar');
+        }
+        throw new Error('Avatar upload timed out');
     },
 
     async deleteAvatar(): Promise<void> {